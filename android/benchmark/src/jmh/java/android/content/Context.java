@@ -0,0 +1,7 @@
+package android.content;
+
+/**
+ * Host implementation, only passed through to the fake player
+ */
+public abstract class Context {
+}
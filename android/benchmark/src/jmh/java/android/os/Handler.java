@@ -0,0 +1,27 @@
+package android.os;
+
+/**
+ * Host implementation, which drops posted runnables. Benchmarks run them directly.
+ */
+public class Handler {
+  public Handler() {
+  }
+
+  public Handler(Looper looper) {
+  }
+
+  public final boolean post(Runnable r) {
+    return true;
+  }
+
+  public final boolean postAtTime(Runnable r, long uptimeMillis) {
+    return true;
+  }
+
+  public final boolean postDelayed(Runnable r, long delayMillis) {
+    return true;
+  }
+
+  public final void removeCallbacks(Runnable r) {
+  }
+}
@@ -0,0 +1,12 @@
+package android.os;
+
+/**
+ * Host implementation without message queue
+ */
+public final class Looper {
+  private static final Looper MAIN_LOOPER = new Looper();
+
+  public static Looper getMainLooper() {
+    return MAIN_LOOPER;
+  }
+}
@@ -0,0 +1,17 @@
+package android.os;
+
+/**
+ * Host implementation of uptime. sleep() advances the clock instead of blocking, so benchmarks
+ * can make timers due without waiting.
+ */
+public final class SystemClock {
+  private static volatile long offsetMs = 0;
+
+  public static long uptimeMillis() {
+    return System.nanoTime() / 1000000 + offsetMs;
+  }
+
+  public static void sleep(long ms) {
+    offsetMs += ms;
+  }
+}
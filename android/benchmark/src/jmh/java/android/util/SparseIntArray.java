@@ -0,0 +1,63 @@
+package android.util;
+
+import java.util.Arrays;
+
+/**
+ * Host implementation of sorted int to int map
+ */
+public class SparseIntArray {
+  private int[] keys = new int[10];
+  private int[] values = new int[10];
+  private int size = 0;
+
+  public int get(int key) {
+    return this.get(key, 0);
+  }
+
+  public int get(int key, int valueIfKeyNotFound) {
+    int index = Arrays.binarySearch(this.keys, 0, this.size, key);
+
+    return index >= 0 ? this.values[index] : valueIfKeyNotFound;
+  }
+
+  public void put(int key, int value) {
+    int index = Arrays.binarySearch(this.keys, 0, this.size, key);
+
+    if (index >= 0) {
+      this.values[index] = value;
+
+      return;
+    }
+
+    index = -index - 1;
+
+    if (this.size == this.keys.length) {
+      this.keys = Arrays.copyOf(this.keys, this.size * 2);
+      this.values = Arrays.copyOf(this.values, this.size * 2);
+    }
+
+    System.arraycopy(this.keys, index, this.keys, index + 1, this.size - index);
+    System.arraycopy(this.values, index, this.values, index + 1, this.size - index);
+    this.keys[index] = key;
+    this.values[index] = value;
+    this.size++;
+  }
+
+  public void delete(int key) {
+    int index = Arrays.binarySearch(this.keys, 0, this.size, key);
+
+    if (index >= 0) {
+      System.arraycopy(this.keys, index + 1, this.keys, index, this.size - index - 1);
+      System.arraycopy(this.values, index + 1, this.values, index, this.size - index - 1);
+      this.size--;
+    }
+  }
+
+  public int size() {
+    return this.size;
+  }
+
+  public void clear() {
+    this.size = 0;
+  }
+}
@@ -0,0 +1,22 @@
+package android.view;
+
+/**
+ * Host implementation, which drops frame callbacks. Benchmarks call doFrame() directly.
+ */
+public final class Choreographer {
+  private static final Choreographer INSTANCE = new Choreographer();
+
+  public interface FrameCallback {
+    void doFrame(long frameTimeNanos);
+  }
+
+  public static Choreographer getInstance() {
+    return INSTANCE;
+  }
+
+  public void postFrameCallback(FrameCallback callback) {
+  }
+
+  public void postFrameCallbackDelayed(FrameCallback callback, long delayMillis) {
+  }
+}
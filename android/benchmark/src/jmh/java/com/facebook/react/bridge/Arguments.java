@@ -0,0 +1,14 @@
+package com.facebook.react.bridge;
+
+/**
+ * Host implementation, which creates Java only maps and arrays instead of native ones
+ */
+public class Arguments {
+  public static WritableMap createMap() {
+    return new JavaOnlyMap();
+  }
+
+  public static WritableArray createArray() {
+    return new JavaOnlyArray();
+  }
+}
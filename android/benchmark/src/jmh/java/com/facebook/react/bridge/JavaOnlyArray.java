@@ -0,0 +1,51 @@
+package com.facebook.react.bridge;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Host implementation of WritableArray backed by an ArrayList
+ */
+public class JavaOnlyArray implements WritableArray {
+  private final List<Object> values = new ArrayList<>();
+
+  @Override
+  public int size() {
+    return this.values.size();
+  }
+
+  @Override
+  public void pushNull() {
+    this.values.add(null);
+  }
+
+  @Override
+  public void pushBoolean(boolean value) {
+    this.values.add(value);
+  }
+
+  @Override
+  public void pushDouble(double value) {
+    this.values.add(value);
+  }
+
+  @Override
+  public void pushInt(int value) {
+    this.values.add(value);
+  }
+
+  @Override
+  public void pushString(String value) {
+    this.values.add(value);
+  }
+
+  @Override
+  public void pushMap(WritableMap map) {
+    this.values.add(map);
+  }
+
+  @Override
+  public void pushArray(WritableArray array) {
+    this.values.add(array);
+  }
+}
@@ -0,0 +1,100 @@
+package com.facebook.react.bridge;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Host implementation of WritableMap backed by a HashMap, like the one of React Native used in tests.
+ * Allocations per put are comparable to WritableNativeMap, which boxes values into a native map.
+ */
+public class JavaOnlyMap implements WritableMap {
+  private final Map<String, Object> values = new HashMap<>();
+
+  @Override
+  public boolean hasKey(String name) {
+    return this.values.containsKey(name);
+  }
+
+  @Override
+  public ReadableType getType(String name) {
+    Object value = this.values.get(name);
+
+    if (value == null) {
+      return ReadableType.Null;
+    }
+    if (value instanceof Boolean) {
+      return ReadableType.Boolean;
+    }
+    if (value instanceof Number) {
+      return ReadableType.Number;
+    }
+    if (value instanceof String) {
+      return ReadableType.String;
+    }
+    if (value instanceof ReadableMap) {
+      return ReadableType.Map;
+    }
+
+    return ReadableType.Array;
+  }
+
+  @Override
+  public boolean getBoolean(String name) {
+    return (Boolean) this.values.get(name);
+  }
+
+  @Override
+  public double getDouble(String name) {
+    return ((Number) this.values.get(name)).doubleValue();
+  }
+
+  @Override
+  public int getInt(String name) {
+    return ((Number) this.values.get(name)).intValue();
+  }
+
+  @Override
+  public String getString(String name) {
+    return (String) this.values.get(name);
+  }
+
+  @Override
+  public ReadableMap getMap(String name) {
+    return (ReadableMap) this.values.get(name);
+  }
+
+  @Override
+  public void putNull(String key) {
+    this.values.put(key, null);
+  }
+
+  @Override
+  public void putBoolean(String key, boolean value) {
+    this.values.put(key, value);
+  }
+
+  @Override
+  public void putDouble(String key, double value) {
+    this.values.put(key, value);
+  }
+
+  @Override
+  public void putInt(String key, int value) {
+    this.values.put(key, value);
+  }
+
+  @Override
+  public void putString(String key, String value) {
+    this.values.put(key, value);
+  }
+
+  @Override
+  public void putMap(String key, WritableMap value) {
+    this.values.put(key, value);
+  }
+
+  @Override
+  public void putArray(String key, WritableArray value) {
+    this.values.put(key, value);
+  }
+}
@@ -0,0 +1,19 @@
+package com.facebook.react.bridge;
+
+public interface WritableArray {
+  int size();
+
+  void pushNull();
+
+  void pushBoolean(boolean value);
+
+  void pushDouble(double value);
+
+  void pushInt(int value);
+
+  void pushString(String value);
+
+  void pushMap(WritableMap map);
+
+  void pushArray(WritableArray array);
+}
@@ -0,0 +1,9 @@
+package com.google.android.exoplayer2;
+
+/**
+ * Host implementation of the constants used by RNSound
+ */
+public final class C {
+  public static final int LENGTH_UNSET = -1;
+  public static final int STREAM_TYPE_DEFAULT = 3;
+}
@@ -0,0 +1,11 @@
+package com.google.android.exoplayer2;
+
+/**
+ * Host implementation of the default buffer durations, which are read by BufferProfile
+ */
+public final class DefaultLoadControl {
+  public static final int DEFAULT_MIN_BUFFER_MS = 15000;
+  public static final int DEFAULT_MAX_BUFFER_MS = 30000;
+  public static final int DEFAULT_BUFFER_FOR_PLAYBACK_MS = 2500;
+  public static final int DEFAULT_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS = 5000;
+}
@@ -0,0 +1,10 @@
+package com.google.android.exoplayer2.trackselection;
+
+import com.google.android.exoplayer2.upstream.BandwidthMeter;
+
+public class AdaptiveTrackSelection implements TrackSelection {
+  public static final class Factory implements TrackSelection.Factory {
+    public Factory(BandwidthMeter bandwidthMeter) {
+    }
+  }
+}
@@ -0,0 +1,6 @@
+package com.google.android.exoplayer2.trackselection;
+
+public class DefaultTrackSelector extends TrackSelector {
+  public DefaultTrackSelector(TrackSelection.Factory adaptiveTrackSelectionFactory) {
+  }
+}
@@ -0,0 +1,6 @@
+package com.google.android.exoplayer2.trackselection;
+
+public interface TrackSelection {
+  interface Factory {
+  }
+}
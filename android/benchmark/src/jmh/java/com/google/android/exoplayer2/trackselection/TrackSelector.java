@@ -0,0 +1,4 @@
+package com.google.android.exoplayer2.trackselection;
+
+public abstract class TrackSelector {
+}
@@ -0,0 +1,4 @@
+package com.google.android.exoplayer2.upstream;
+
+public final class DefaultBandwidthMeter implements BandwidthMeter {
+}
@@ -0,0 +1,91 @@
+package com.zmxv.RNSound;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of event payloads and their coalescing into one array per event name and frame
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventPayloadBenchmark {
+  @Param({"1", "16", "64"})
+  int eventsPerFrame;
+
+  private EventDispatcher dispatcher;
+  private Blackhole blackhole;
+
+  @Setup
+  public void setup(final Blackhole blackhole) {
+    this.blackhole = blackhole;
+    this.dispatcher = new EventDispatcher(new EventDispatcher.Emitter() {
+      @Override
+      public void emit(String eventName, WritableArray events) {
+        EventPayloadBenchmark.this.blackhole.consume(events);
+      }
+    });
+  }
+
+  /**
+   * Payload of RNSoundModule.onProgress() for a tick, in which eventsPerFrame players are due
+   */
+  @Benchmark
+  public WritableMap progressPayload() {
+    WritableArray keys = Arguments.createArray();
+    WritableArray progress = Arguments.createArray();
+
+    for (int key = 0; key < this.eventsPerFrame; key++) {
+      keys.pushInt(key);
+      progress.pushDouble(12345 * .001);
+    }
+
+    WritableMap data = Arguments.createMap();
+    data.putArray("keys", keys);
+    data.putArray("progress", progress);
+
+    return data;
+  }
+
+  /**
+   * Payload of RNSoundModule.sendPlayingEvent() and sendEvent()
+   */
+  @Benchmark
+  public WritableMap playingPayload() {
+    return playingEvent(1);
+  }
+
+  /**
+   * Queue playing events of several players and flush them in one frame
+   */
+  @Benchmark
+  public void enqueueAndFlush() {
+    for (int key = 0; key < this.eventsPerFrame; key++) {
+      this.dispatcher.enqueue("RNSound-playing", playingEvent(key));
+    }
+
+    this.dispatcher.doFrame(0);
+  }
+
+  private static WritableMap playingEvent(int key) {
+    WritableMap data = Arguments.createMap();
+    data.putBoolean("isPlaying", true);
+    data.putDouble("currentTime", 12.345);
+    data.putInt("key", key);
+
+    return data;
+  }
+}
@@ -0,0 +1,71 @@
+package com.zmxv.RNSound;
+
+import android.content.Context;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acquire and recycle of pooled players with the fake player, for a hit on the requested profile
+ * and for a miss on a pool holding only players of other profiles
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExoPlayerPoolBenchmark {
+  @Param({"1", "8", "32"})
+  int poolSize;
+
+  private ExoPlayerPool pool;
+  private ExoPlayerPool streamPool;
+  private BufferProfile custom;
+
+  @Setup
+  public void setup() {
+    Context context = new Context() {
+    };
+    MemoryBudget budget = new MemoryBudget();
+
+    this.pool = fill(new ExoPlayerPool(context, budget), this.poolSize, BufferProfile.DEFAULT);
+    this.streamPool = fill(new ExoPlayerPool(context, budget), this.poolSize, BufferProfile.STREAM);
+    this.custom = new BufferProfile("custom", 1000, 2000, 100, 200, 64 * 1024);
+  }
+
+  @Benchmark
+  public ProcessingExoPlayer reuse() {
+    ProcessingExoPlayer player = this.pool.acquire(BufferProfile.DEFAULT);
+    this.pool.recycle(player);
+
+    return player;
+  }
+
+  /**
+   * Scan of all idle players and creation of a new fake player, which is not recycled to keep pool unchanged
+   */
+  @Benchmark
+  public ProcessingExoPlayer missWithOtherProfiles() {
+    return this.streamPool.acquire(this.custom);
+  }
+
+  private static ExoPlayerPool fill(ExoPlayerPool pool, int size, BufferProfile profile) {
+    pool.setMaxSize(size);
+
+    ProcessingExoPlayer[] players = new ProcessingExoPlayer[size];
+    for (int i = 0; i < size; i++) {
+      players[i] = pool.acquire(profile);
+    }
+    for (ProcessingExoPlayer player : players) {
+      pool.recycle(player);
+    }
+
+    return pool;
+  }
+}
@@ -0,0 +1,19 @@
+package com.zmxv.RNSound;
+
+/**
+ * Fake audio processor of ProcessingExoPlayer
+ */
+public class GainAudioProcessor {
+  private float volume = 1f;
+
+  public void setVolumeImmediately(float volume) {
+    this.volume = volume;
+  }
+
+  public float getVolume() {
+    return this.volume;
+  }
+
+  public void setTap(Object tap) {
+  }
+}
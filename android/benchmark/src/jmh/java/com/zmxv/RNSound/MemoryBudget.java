@@ -0,0 +1,7 @@
+package com.zmxv.RNSound;
+
+/**
+ * Fake memory budget, passed through to the fake load control
+ */
+public class MemoryBudget {
+}
@@ -0,0 +1,69 @@
+package com.zmxv.RNSound;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups of play(), setVolume() and progress events, prepare/release churn and iteration over
+ * all players as on destroy, audio focus changes and metrics
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PlayerRegistryBenchmark {
+  @Param({"8", "64", "512"})
+  int players;
+
+  private PlayerRegistry<Object> registry;
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    this.registry = new PlayerRegistry<>();
+
+    // Even keys are registered, odd keys miss
+    for (int i = 0; i < this.players; i++) {
+      this.registry.put(i * 2, new Object());
+    }
+  }
+
+  @Benchmark
+  public Object getHit() {
+    this.next = (this.next + 1) % this.players;
+
+    return this.registry.get(this.next * 2);
+  }
+
+  @Benchmark
+  public Object getMiss() {
+    this.next = (this.next + 1) % this.players;
+
+    return this.registry.get(this.next * 2 + 1);
+  }
+
+  @Benchmark
+  public Object prepareReleaseChurn() {
+    this.next = (this.next + 1) % this.players;
+    int key = this.next * 2 + 1;
+
+    this.registry.put(key, this);
+
+    return this.registry.remove(key);
+  }
+
+  @Benchmark
+  public void iterateAll(Blackhole blackhole) {
+    for (int key : this.registry.keys()) {
+      blackhole.consume(this.registry.get(key));
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.zmxv.RNSound;
+
+import android.content.Context;
+
+import com.google.android.exoplayer2.trackselection.TrackSelector;
+
+/**
+ * Fake player with the methods ExoPlayerPool calls. It only records state, so pool benchmarks
+ * measure the bookkeeping of the pool and not the construction cost of ExoPlayer.
+ */
+public class ProcessingExoPlayer {
+  private final GainAudioProcessor gainAudioProcessor = new GainAudioProcessor();
+  private final ProfileLoadControl loadControl;
+
+  private boolean playWhenReady;
+  private float volume = 1f;
+  private int streamType;
+  private boolean released;
+
+  public ProcessingExoPlayer(Context context, TrackSelector trackSelector, ProfileLoadControl loadControl) {
+    this.loadControl = loadControl;
+  }
+
+  public void setPlayWhenReady(boolean playWhenReady) {
+    this.playWhenReady = playWhenReady;
+  }
+
+  public boolean getPlayWhenReady() {
+    return this.playWhenReady;
+  }
+
+  public void stop() {
+    this.playWhenReady = false;
+  }
+
+  public void setVolume(float volume) {
+    this.volume = volume;
+  }
+
+  public void setPlaybackParameters(Object playbackParameters) {
+  }
+
+  public void setAudioStreamType(int streamType) {
+    this.streamType = streamType;
+  }
+
+  public void release() {
+    this.released = true;
+  }
+
+  public GainAudioProcessor getGainAudioProcessor() {
+    return this.gainAudioProcessor;
+  }
+
+  public ProfileLoadControl getLoadControl() {
+    return this.loadControl;
+  }
+
+  public BufferProfile getBufferProfile() {
+    return this.loadControl.getProfile();
+  }
+}
@@ -0,0 +1,19 @@
+package com.zmxv.RNSound;
+
+/**
+ * Fake load control of ProcessingExoPlayer without allocator
+ */
+public class ProfileLoadControl {
+  private final BufferProfile profile;
+
+  public ProfileLoadControl(BufferProfile profile, MemoryBudget budget) {
+    this.profile = profile;
+  }
+
+  public BufferProfile getProfile() {
+    return this.profile;
+  }
+
+  public void resetPeakBytesAllocated() {
+  }
+}
@@ -0,0 +1,60 @@
+package com.zmxv.RNSound;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One tick of the shared progress ticker, in which all playing players are due
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProgressTickerBenchmark {
+  static final int INTERVAL_MS = 250;
+
+  @Param({"1", "16", "64"})
+  int players;
+
+  private ProgressTicker ticker;
+  private Blackhole blackhole;
+
+  @Setup
+  public void setup(final Blackhole blackhole) {
+    this.blackhole = blackhole;
+    this.ticker = new ProgressTicker(new Handler(), new ProgressTicker.Listener() {
+      @Override
+      public long getPlaybackPosition(int key) {
+        return SystemClock.uptimeMillis();
+      }
+
+      @Override
+      public void onProgress(int[] keys, long[] positionsInMs, int count) {
+        ProgressTickerBenchmark.this.blackhole.consume(positionsInMs);
+      }
+    });
+
+    for (int key = 0; key < this.players; key++) {
+      this.ticker.setInterval(key, INTERVAL_MS);
+      this.ticker.start(key);
+    }
+  }
+
+  @Benchmark
+  public void tick() {
+    // Advance host clock, so all players are due
+    SystemClock.sleep(INTERVAL_MS);
+    this.ticker.run();
+  }
+}
@@ -0,0 +1,181 @@
+package com.zmxv.RNSound;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.soloader.SoLoader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Players of keys, which prepared the same file concurrently, must be ready when their prepare
+ * callback is invoked. Effects which joined the decode of a released key must still be ready.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ConcurrentPrepareTest {
+  private static final int LEADER_KEY = 1;
+  private static final int FOLLOWER_KEY = 2;
+  private static final int EFFECT_LEADER_KEY = 3;
+  private static final int EFFECT_FOLLOWER_KEY = 4;
+  private static final long TIMEOUT_MS = 5000;
+
+  /**
+   * Module which drops events, as there is no JavaScript instance to receive them
+   */
+  static class TestModule extends RNSoundModule {
+    TestModule(ReactApplicationContext context) {
+      super(context);
+    }
+
+    @Override
+    public void emit(String eventName, WritableArray events) {
+    }
+  }
+
+  /**
+   * Callback, which stores its arguments and can be awaited
+   */
+  static class ResultCallback implements Callback {
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private Object[] args;
+
+    @Override
+    public void invoke(Object... args) {
+      this.args = args;
+      this.latch.countDown();
+    }
+
+    Object[] await() throws InterruptedException {
+      assertTrue("callback was not invoked", this.latch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+      return this.args;
+    }
+  }
+
+  private TestModule module;
+  private File file;
+
+  @Before
+  public void setUp() throws Exception {
+    ReactApplicationContext context = new ReactApplicationContext(InstrumentationRegistry.getTargetContext());
+    SoLoader.init(context, false);
+
+    this.module = new TestModule(context);
+    this.file = writeSine(new File(context.getCacheDir(), "concurrent.wav"), 1000);
+
+    // Second prepare arrives while the first is in flight
+    ResultCallback leader = new ResultCallback();
+    ResultCallback follower = new ResultCallback();
+    this.module.prepare(this.file.getAbsolutePath(), LEADER_KEY, Arguments.createMap(), leader);
+    this.module.prepare(this.file.getAbsolutePath(), FOLLOWER_KEY, Arguments.createMap(), follower);
+
+    assertNull(leader.await()[0]);
+    assertNull(follower.await()[0]);
+  }
+
+  @After
+  public void tearDown() {
+    this.module.onCatalystInstanceDestroy();
+    this.file.delete();
+  }
+
+  @Test
+  public void playAtStartsFollower() throws InterruptedException {
+    ResultCallback callback = new ResultCallback();
+    this.module.playAt(FOLLOWER_KEY, System.nanoTime() / 1000000.0 + 50, callback);
+
+    Object[] args = callback.await();
+    assertNull(args[0]);
+    assertNotNull(args[1]);
+  }
+
+  @Test
+  public void playTogetherStartsFollower() throws InterruptedException {
+    WritableArray layers = Arguments.createArray();
+    for (int key : new int[] { LEADER_KEY, FOLLOWER_KEY }) {
+      WritableMap layer = Arguments.createMap();
+      layer.putInt("key", key);
+      layers.pushMap(layer);
+    }
+
+    ResultCallback callback = new ResultCallback();
+    this.module.playTogether(layers, callback);
+
+    ReadableArray results = (ReadableArray) callback.await()[0];
+    assertEquals(2, results.size());
+    for (int i = 0; i < results.size(); i++) {
+      ReadableMap result = results.getMap(i);
+      assertTrue("key " + result.getInt("key"), result.getBoolean("success"));
+    }
+  }
+
+  @Test
+  public void releasedEffectLeaderCompletesFollower() throws InterruptedException {
+    WritableMap options = Arguments.createMap();
+    options.putBoolean("effect", true);
+
+    // Follower joins the decode, which the leader gives up before it completes
+    ResultCallback leader = new ResultCallback();
+    ResultCallback follower = new ResultCallback();
+    this.module.prepare(this.file.getAbsolutePath(), EFFECT_LEADER_KEY, options, leader);
+    this.module.prepare(this.file.getAbsolutePath(), EFFECT_FOLLOWER_KEY, options, follower);
+    this.module.release(EFFECT_LEADER_KEY);
+
+    assertNull(follower.await()[0]);
+  }
+
+  /**
+   * Write 16 bit mono WAV file of a sine
+   *
+   * @param file
+   * @param durationMs
+   * @return File
+   * @throws IOException
+   */
+  private static File writeSine(File file, int durationMs) throws IOException {
+    int sampleRate = 44100;
+    int samples = sampleRate * durationMs / 1000;
+    ByteBuffer buffer = ByteBuffer.allocate(44 + samples * 2).order(ByteOrder.LITTLE_ENDIAN);
+
+    buffer.put("RIFF".getBytes()).putInt(36 + samples * 2).put("WAVE".getBytes());
+    buffer.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 1)
+            .putInt(sampleRate).putInt(sampleRate * 2).putShort((short) 2).putShort((short) 16);
+    buffer.put("data".getBytes()).putInt(samples * 2);
+    for (int i = 0; i < samples; i++) {
+      buffer.putShort((short) (Math.sin(2 * Math.PI * 440 * i / sampleRate) * 8000));
+    }
+
+    FileOutputStream output = new FileOutputStream(file);
+    try {
+      output.write(buffer.array());
+    }
+    finally {
+      output.close();
+    }
+
+    return file;
+  }
+}
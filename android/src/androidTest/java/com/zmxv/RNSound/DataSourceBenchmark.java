@@ -0,0 +1,147 @@
+package com.zmxv.RNSound;
+
+import android.net.Uri;
+import android.os.Build;
+import android.os.Debug;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.FileDataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measure read throughput and allocations of the stream based and the memory mapped file data
+ * source by reading a whole file in chunks of the size which extractors use. Results are logged
+ * with tag RNSoundBenchmark.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DataSourceBenchmark {
+  static final int FILE_SIZE = 16 * 1024 * 1024;
+  static final int CHUNK_SIZE = 4096;
+  static final int ITERATIONS = 3;
+
+  /**
+   * Best run of a data source
+   */
+  static class Result {
+    long bytes = 0;
+    long bestNanos = Long.MAX_VALUE;
+    long allocatedBytes = -1;
+
+    double getThroughput() {
+      return (this.bytes / 1048576.0) / (this.bestNanos / 1000000000.0);
+    }
+  }
+
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    this.file = new File(InstrumentationRegistry.getTargetContext().getCacheDir(), "benchmark.bin");
+
+    byte[] data = new byte[FILE_SIZE];
+    new Random(0).nextBytes(data);
+
+    FileOutputStream output = new FileOutputStream(this.file);
+    try {
+      output.write(data);
+    }
+    finally {
+      output.close();
+    }
+  }
+
+  @After
+  public void tearDown() {
+    this.file.delete();
+  }
+
+  @Test
+  public void compareStreamAndMapped() throws IOException {
+    Uri uri = Uri.fromFile(this.file);
+
+    Result stream = run(new FileDataSource(), uri);
+    Result mapped = run(new MappedFileDataSource(null, MappedFileDataSource.DEFAULT_WINDOW_SIZE), uri);
+
+    log("stream", stream);
+    log("mapped", mapped);
+
+    assertEquals(FILE_SIZE, stream.bytes);
+    assertEquals(FILE_SIZE, mapped.bytes);
+  }
+
+  /**
+   * Read file completely several times and keep the best run
+   *
+   * @param dataSource
+   * @param uri
+   * @return Result of best run
+   * @throws IOException
+   */
+  static Result run(DataSource dataSource, Uri uri) throws IOException {
+    byte[] buffer = new byte[CHUNK_SIZE];
+    Result result = new Result();
+
+    for (int i = 0; i < ITERATIONS; i++) {
+      long startAllocated = getAllocatedBytes();
+      long startNanos = System.nanoTime();
+
+      long bytes = 0;
+      try {
+        dataSource.open(new DataSpec(uri));
+
+        int bytesRead;
+        while ((bytesRead = dataSource.read(buffer, 0, buffer.length)) != C.RESULT_END_OF_INPUT) {
+          bytes += bytesRead;
+        }
+      }
+      finally {
+        dataSource.close();
+      }
+
+      long nanos = System.nanoTime() - startNanos;
+      long endAllocated = getAllocatedBytes();
+
+      if (nanos < result.bestNanos) {
+        result.bytes = bytes;
+        result.bestNanos = nanos;
+        result.allocatedBytes = startAllocated < 0 ? -1 : endAllocated - startAllocated;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Get bytes allocated by the runtime of the process so far
+   *
+   * @return Bytes or -1 before Android 6.0, which has no runtime statistics
+   */
+  private static long getAllocatedBytes() {
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+      return -1;
+    }
+
+    return Long.parseLong(Debug.getRuntimeStat("art.gc.bytes-allocated"));
+  }
+
+  private static void log(String name, Result result) {
+    Log.i("RNSoundBenchmark", String.format("%s: %d bytes in %.1f ms, %.1f MB/s, %d bytes allocated", name,
+            result.bytes, result.bestNanos / 1000000.0, result.getThroughput(), result.allocatedBytes));
+  }
+}
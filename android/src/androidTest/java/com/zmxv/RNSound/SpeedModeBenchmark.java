@@ -0,0 +1,152 @@
+package com.zmxv.RNSound;
+
+import android.os.Debug;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.google.android.exoplayer2.audio.SonicAudioProcessor;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Measure CPU time per voice of the rate modes of setSpeed() on a generated stereo clip:
+ * ExoPlayer with time-stretching and with resampling by Sonic, SoundMixer interpolating in real
+ * time and SoundMixer playing a pre-rendered variant. Results are logged with tag RNSoundBenchmark.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SpeedModeBenchmark {
+  static final int SAMPLE_RATE = 44100;
+  static final float[] SPEEDS = { .75f, 1.5f };
+  static final int DURATION_SECONDS = 5;
+  static final int ITERATIONS = 3;
+
+  @Test
+  public void compareModes() {
+    for (float speed : SPEEDS) {
+      run(SAMPLE_RATE, speed);
+    }
+  }
+
+  /**
+   * Run all modes several times and log CPU milliseconds per second of played audio and real time
+   * voices per core of the best run of each
+   *
+   * @param sampleRate
+   * @param speed
+   */
+  static void run(int sampleRate, float speed) {
+    int frameCount = sampleRate * DURATION_SECONDS;
+    short[] samples = new short[frameCount * 2];
+
+    for (int i = 0; i < frameCount; i++) {
+      short sample = (short) (8000 * Math.sin(2 * Math.PI * 440 * i / sampleRate) + (Math.random() - .5) * 2000);
+      samples[i * 2] = sample;
+      samples[i * 2 + 1] = sample;
+    }
+
+    PcmClip clip = new PcmClip(samples, sampleRate, 2);
+    float[] mix = new float[SoundMixer.DEFAULT_FRAMES_PER_BUFFER * 2];
+
+    // Played seconds differ from clip duration by speed
+    double playedSeconds = DURATION_SECONDS / speed;
+
+    long stretch = Long.MAX_VALUE;
+    long resample = Long.MAX_VALUE;
+    long mixerResample = Long.MAX_VALUE;
+    long prerendered = Long.MAX_VALUE;
+    PcmClip variant = PcmVariants.resample(clip, speed);
+
+    for (int i = 0; i < ITERATIONS; i++) {
+      stretch = Math.min(stretch, measureSonic(clip, speed, 1));
+      resample = Math.min(resample, measureSonic(clip, speed, speed));
+      mixerResample = Math.min(mixerResample, measureMixer(clip, speed, mix));
+      prerendered = Math.min(prerendered, measureMixer(variant, 1, mix));
+    }
+
+    log(speed, "stretch", stretch, playedSeconds);
+    log(speed, "resample", resample, playedSeconds);
+    log(speed, "effectResample", mixerResample, playedSeconds);
+    log(speed, "effectPrerendered", prerendered, playedSeconds);
+  }
+
+  /**
+   * Process clip through Sonic in buffers like the audio renderer of ExoPlayer
+   *
+   * @return CPU time in nanoseconds
+   */
+  private static long measureSonic(PcmClip clip, float speed, float pitch) {
+    SonicAudioProcessor sonic = PcmVariants.createSonic(clip.sampleRate, speed, pitch);
+    ByteBuffer input = ByteBuffer.allocateDirect(PcmVariants.BUFFER_FRAMES * 4).order(ByteOrder.nativeOrder());
+
+    long startNanos = Debug.threadCpuTimeNanos();
+
+    for (int offset = 0; offset < clip.samples.length; offset += PcmVariants.BUFFER_FRAMES * 2) {
+      int length = Math.min(PcmVariants.BUFFER_FRAMES * 2, clip.samples.length - offset);
+
+      input.clear();
+      input.asShortBuffer().put(clip.samples, offset, length);
+      input.limit(length * 2);
+
+      sonic.queueInput(input);
+      sonic.getOutput();
+    }
+
+    long nanos = Debug.threadCpuTimeNanos() - startNanos;
+    sonic.release();
+
+    return nanos;
+  }
+
+  /**
+   * Mix clip into buffers with the inner loop of SoundMixer
+   *
+   * @return CPU time in nanoseconds
+   */
+  private static long measureMixer(PcmClip clip, float rate, float[] mix) {
+    short[] samples = clip.samples;
+    int frameCount = clip.frameCount;
+    int framesPerBuffer = mix.length / 2;
+    int position = 0;
+    float fraction = 0;
+
+    long startNanos = Debug.threadCpuTimeNanos();
+
+    while (position < frameCount) {
+      for (int i = 0; i < framesPerBuffer && position < frameCount; i++) {
+        int sample = position * 2;
+        float sampleLeft = samples[sample];
+        float sampleRight = samples[sample + 1];
+
+        if (rate == 1) {
+          position++;
+        }
+        else {
+          int next = position + 1 < frameCount ? sample + 2 : sample;
+          sampleLeft += (samples[next] - sampleLeft) * fraction;
+          sampleRight += (samples[next + 1] - sampleRight) * fraction;
+
+          fraction += rate;
+          int frames = (int) fraction;
+          fraction -= frames;
+          position += frames;
+        }
+
+        mix[i * 2] += sampleLeft * .5f;
+        mix[i * 2 + 1] += sampleRight * .5f;
+      }
+    }
+
+    return Debug.threadCpuTimeNanos() - startNanos;
+  }
+
+  private static void log(float speed, String mode, long cpuNanos, double playedSeconds) {
+    double cpuMsPerSecond = cpuNanos / 1000000.0 / playedSeconds;
+
+    Log.i("RNSoundBenchmark", String.format("speed %.2f, %s: %.2f CPU ms per second, %.0f voices", speed, mode,
+            cpuMsPerSecond, cpuMsPerSecond > 0 ? 1000 / cpuMsPerSecond : 0));
+  }
+}
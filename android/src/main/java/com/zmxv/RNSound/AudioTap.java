@@ -0,0 +1,200 @@
+package com.zmxv.RNSound;
+
+/**
+ * Opt-in analysis of the audio of one key for visualizers. The thread producing the audio writes
+ * mono samples into a preallocated ring, the audio thread of RNSoundModule reads RMS and peak since
+ * the last read and an optional spectrum of the newest samples. No buffers are allocated after
+ * construction.
+ */
+public class AudioTap {
+  static final int DEFAULT_INTERVAL_MS = 50;
+  static final int MIN_INTERVAL_MS = 16;
+  static final int MIN_FFT_SIZE = 64;
+  static final int MAX_FFT_SIZE = 4096;
+
+  // Range of spectrum, which is quantized to 0..255
+  static final float MIN_DECIBELS = -100;
+  static final float MAX_DECIBELS = 0;
+
+  final int intervalMs;
+  final int fftSize;
+
+  // Ring of newest mono samples in -1..1, written by producing thread
+  private final float[] ring;
+  private int ringPosition = 0;
+  private double sumOfSquares = 0;
+  private float peak = 0;
+  private int sampleCount = 0;
+  private int sampleRate = 0;
+
+  // Preallocated buffers of spectrum, used by reading thread only
+  private final float[] window;
+  private final float[] real;
+  private final float[] imaginary;
+  private final int[] bitReversed;
+  private final float[] cosTable;
+  private final float[] sinTable;
+  private final byte[] spectrum;
+
+  // Result of last read
+  private float lastRms = 0;
+  private float lastPeak = 0;
+  private int lastSampleRate = 0;
+
+  /**
+   * Create tap
+   *
+   * @param intervalMs Time between two reads
+   * @param fftSize Count of samples of spectrum, power of two or 0 without spectrum
+   */
+  public AudioTap(int intervalMs, int fftSize) {
+    this.intervalMs = Math.max(MIN_INTERVAL_MS, intervalMs);
+
+    if (fftSize > 0) {
+      fftSize = Integer.highestOneBit(Math.min(MAX_FFT_SIZE, Math.max(MIN_FFT_SIZE, fftSize)));
+    }
+    this.fftSize = Math.max(0, fftSize);
+
+    int size = this.fftSize;
+    this.ring = new float[Math.max(1, size)];
+    this.window = new float[size];
+    this.real = new float[size];
+    this.imaginary = new float[size];
+    this.bitReversed = new int[size];
+    this.cosTable = new float[size / 2];
+    this.sinTable = new float[size / 2];
+    this.spectrum = new byte[size / 2];
+
+    // Hann window, bit reversal permutation and twiddle factors of radix-2 FFT
+    int bits = Integer.numberOfTrailingZeros(Math.max(1, size));
+    for (int i = 0; i < size; i++) {
+      this.window[i] = (float) (0.5 - 0.5 * Math.cos(2 * Math.PI * i / (size - 1)));
+      this.bitReversed[i] = Integer.reverse(i) >>> (32 - bits);
+    }
+    for (int i = 0; i < size / 2; i++) {
+      this.cosTable[i] = (float) Math.cos(2 * Math.PI * i / size);
+      this.sinTable[i] = (float) -Math.sin(2 * Math.PI * i / size);
+    }
+  }
+
+  /**
+   * Write mono samples in range of 16 bit PCM, called by thread producing the audio
+   *
+   * @param samples
+   * @param count
+   * @param sampleRate
+   */
+  public synchronized void write(float[] samples, int count, int sampleRate) {
+    this.sampleRate = sampleRate;
+
+    for (int i = 0; i < count; i++) {
+      float sample = samples[i] / 32768f;
+      float magnitude = Math.abs(sample);
+
+      this.sumOfSquares += sample * sample;
+      if (magnitude > this.peak) {
+        this.peak = magnitude;
+      }
+
+      this.ring[this.ringPosition] = sample;
+      this.ringPosition = (this.ringPosition + 1) % this.ring.length;
+    }
+
+    this.sampleCount += count;
+  }
+
+  /**
+   * Take RMS and peak of samples since last read and compute spectrum of newest samples
+   *
+   * @return Whether samples were written since last read
+   */
+  public boolean read() {
+    synchronized (this) {
+      if (this.sampleCount == 0) {
+        return false;
+      }
+
+      this.lastRms = (float) Math.sqrt(this.sumOfSquares / this.sampleCount);
+      this.lastPeak = this.peak;
+      this.lastSampleRate = this.sampleRate;
+      this.sumOfSquares = 0;
+      this.peak = 0;
+      this.sampleCount = 0;
+
+      // Copy ring in order of time, windowed and bit reversed for FFT
+      for (int i = 0; i < this.fftSize; i++) {
+        int index = this.bitReversed[i];
+        this.real[index] = this.ring[(this.ringPosition + i) % this.fftSize] * this.window[i];
+        this.imaginary[index] = 0;
+      }
+    }
+
+    if (this.fftSize > 0) {
+      this.computeSpectrum();
+    }
+
+    return true;
+  }
+
+  public float getRms() {
+    return this.lastRms;
+  }
+
+  public float getPeak() {
+    return this.lastPeak;
+  }
+
+  public int getSampleRate() {
+    return this.lastSampleRate;
+  }
+
+  /**
+   * Get spectrum of last read, fftSize / 2 bins from 0 Hz to half sample rate quantized from
+   * MIN_DECIBELS..MAX_DECIBELS to 0..255. Array is reused by the next read.
+   *
+   * @return Spectrum, empty without FFT
+   */
+  public byte[] getSpectrum() {
+    return this.spectrum;
+  }
+
+  /**
+   * In-place radix-2 FFT of bit reversed real and imaginary, quantized magnitudes into spectrum
+   */
+  private void computeSpectrum() {
+    int size = this.fftSize;
+
+    for (int length = 2; length <= size; length <<= 1) {
+      int half = length >> 1;
+      int step = size / length;
+
+      for (int start = 0; start < size; start += length) {
+        for (int k = 0; k < half; k++) {
+          float cos = this.cosTable[k * step];
+          float sin = this.sinTable[k * step];
+          int even = start + k;
+          int odd = even + half;
+
+          float oddReal = this.real[odd] * cos - this.imaginary[odd] * sin;
+          float oddImaginary = this.real[odd] * sin + this.imaginary[odd] * cos;
+
+          this.real[odd] = this.real[even] - oddReal;
+          this.imaginary[odd] = this.imaginary[even] - oddImaginary;
+          this.real[even] += oddReal;
+          this.imaginary[even] += oddImaginary;
+        }
+      }
+    }
+
+    // Normalize to amplitude of a full scale sine, Hann window halves it
+    float scale = 4f / size;
+
+    for (int i = 0; i < size / 2; i++) {
+      float magnitude = (float) Math.sqrt(this.real[i] * this.real[i] + this.imaginary[i] * this.imaginary[i]) * scale;
+      float decibels = magnitude > 0 ? (float) (20 * Math.log10(magnitude)) : MIN_DECIBELS;
+      float level = (decibels - MIN_DECIBELS) / (MAX_DECIBELS - MIN_DECIBELS);
+
+      this.spectrum[i] = (byte) Math.round(Math.max(0, Math.min(1, level)) * 255);
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.zmxv.RNSound;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+/**
+ * Collect results of all operations of a batch and invoke one callback when all operations are done
+ */
+public class BatchResult {
+  private final Callback callback;
+  private final WritableMap[] results;
+  private int pending;
+
+  public BatchResult(int count, Callback callback) {
+    this.callback = callback;
+    this.results = new WritableMap[count];
+    this.pending = count;
+
+    if (count == 0) {
+      this.invokeCallback();
+    }
+  }
+
+  /**
+   * Create callback for an operation, which stores the arguments of the single callback as result.
+   * Accepts (success) of play, pause and stop and (error, props) of prepare.
+   *
+   * @param index Index of operation in batch
+   * @param key
+   * @return Callback for operation
+   */
+  public Callback callbackFor(final int index, final int key) {
+    return new Callback() {
+      @Override
+      public void invoke(Object... args) {
+        complete(index, resultOf(key, args));
+      }
+    };
+  }
+
+  /**
+   * Create result map of the arguments of a single callback
+   *
+   * @param key
+   * @param args (success) of play, pause and stop or (error, props) of prepare
+   * @return Map with key, success and error or props
+   */
+  static WritableMap resultOf(int key, Object... args) {
+    WritableMap result = Arguments.createMap();
+    result.putInt("key", key);
+
+    if (args.length == 1 && args[0] instanceof Boolean) {
+      result.putBoolean("success", (Boolean) args[0]);
+    }
+    else if (args.length > 0 && args[0] instanceof WritableMap) {
+      result.putBoolean("success", false);
+      result.putMap("error", (WritableMap) args[0]);
+    }
+    else {
+      result.putBoolean("success", true);
+
+      if (args.length > 1 && args[1] instanceof WritableMap) {
+        result.putMap("props", (WritableMap) args[1]);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Store result of operation, if it has no result yet
+   *
+   * @param index
+   * @param key
+   * @param success
+   */
+  public void complete(int index, int key, boolean success) {
+    WritableMap result = Arguments.createMap();
+    result.putInt("key", key);
+    result.putBoolean("success", success);
+
+    this.complete(index, result);
+  }
+
+  public synchronized boolean isComplete(int index) {
+    return this.results[index] != null;
+  }
+
+  private void complete(int index, WritableMap result) {
+    synchronized (this) {
+      if (this.results[index] != null) {
+        return;
+      }
+
+      this.results[index] = result;
+
+      if (--this.pending > 0) {
+        return;
+      }
+    }
+
+    this.invokeCallback();
+  }
+
+  private void invokeCallback() {
+    WritableArray array = Arguments.createArray();
+
+    for (WritableMap result : this.results) {
+      array.pushMap(result);
+    }
+
+    this.callback.invoke(array);
+  }
+}
@@ -0,0 +1,150 @@
+package com.zmxv.RNSound;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.DefaultLoadControl;
+
+/**
+ * Buffering limits of a player. Players are pooled per profile, as the LoadControl of an
+ * ExoPlayer instance is fixed at construction.
+ */
+public class BufferProfile {
+  // Defaults of DefaultLoadControl, the byte limit is derived from the selected tracks
+  static final BufferProfile DEFAULT = new BufferProfile("default",
+          DefaultLoadControl.DEFAULT_MIN_BUFFER_MS,
+          DefaultLoadControl.DEFAULT_MAX_BUFFER_MS,
+          DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_MS,
+          DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS,
+          C.LENGTH_UNSET);
+
+  // Short local clips: small buffer and playback starts as soon as the first samples are loaded
+  static final BufferProfile EFFECT = new BufferProfile("effect", 500, 2000, 100, 250, 256 * 1024);
+
+  // Network audio: large buffer to ride out bandwidth drops
+  static final BufferProfile STREAM = new BufferProfile("stream", 30000, 60000, 2500, 5000, 8 * 1024 * 1024);
+
+  // Long local files: small fixed ceiling, segments are reused from the shared pool of MemoryBudget
+  static final BufferProfile STREAMING = new BufferProfile("streaming",
+          DefaultLoadControl.DEFAULT_MIN_BUFFER_MS,
+          DefaultLoadControl.DEFAULT_MAX_BUFFER_MS,
+          DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_MS,
+          DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS,
+          1024 * 1024,
+          true);
+
+  final String name;
+  final int minBufferMs;
+  final int maxBufferMs;
+  final int bufferForPlaybackMs;
+  final int bufferForPlaybackAfterRebufferMs;
+  final int maxBufferBytes;
+  final boolean shared;
+
+  /**
+   * Create profile
+   *
+   * @param name
+   * @param minBufferMs Duration which is always kept buffered
+   * @param maxBufferMs Duration until loading stops
+   * @param bufferForPlaybackMs Duration which has to be buffered to start playback
+   * @param bufferForPlaybackAfterRebufferMs Duration which has to be buffered to continue playback after rebuffering
+   * @param maxBufferBytes Bytes until loading stops, C.LENGTH_UNSET for the limit of the selected tracks
+   */
+  public BufferProfile(String name, int minBufferMs, int maxBufferMs, int bufferForPlaybackMs, int bufferForPlaybackAfterRebufferMs, int maxBufferBytes) {
+    this(name, minBufferMs, maxBufferMs, bufferForPlaybackMs, bufferForPlaybackAfterRebufferMs, maxBufferBytes, false);
+  }
+
+  /**
+   * Create profile
+   *
+   * @param name
+   * @param minBufferMs Duration which is always kept buffered
+   * @param maxBufferMs Duration until loading stops
+   * @param bufferForPlaybackMs Duration which has to be buffered to start playback
+   * @param bufferForPlaybackAfterRebufferMs Duration which has to be buffered to continue playback after rebuffering
+   * @param maxBufferBytes Bytes until loading stops, C.LENGTH_UNSET for the limit of the selected tracks
+   * @param shared Whether segments are taken from the shared pool of MemoryBudget
+   */
+  public BufferProfile(String name, int minBufferMs, int maxBufferMs, int bufferForPlaybackMs, int bufferForPlaybackAfterRebufferMs, int maxBufferBytes, boolean shared) {
+    this.name = name;
+    this.minBufferMs = minBufferMs;
+    this.maxBufferMs = Math.max(minBufferMs, maxBufferMs);
+    this.bufferForPlaybackMs = bufferForPlaybackMs;
+    this.bufferForPlaybackAfterRebufferMs = bufferForPlaybackAfterRebufferMs;
+    this.maxBufferBytes = maxBufferBytes;
+    this.shared = shared;
+  }
+
+  /**
+   * Get profile of buffer option of prepare(): 'default', 'effect', 'stream', 'streaming' or a map of
+   * minBufferMs, maxBufferMs, bufferForPlaybackMs, bufferForPlaybackAfterRebufferMs and maxBufferBytes
+   *
+   * @param options Options of prepare(), may be null
+   * @return Profile, DEFAULT if option is missing or unknown
+   */
+  public static BufferProfile fromOptions(ReadableMap options) {
+    if (options == null || !options.hasKey("buffer")) {
+      return DEFAULT;
+    }
+
+    if (options.getType("buffer") == ReadableType.String) {
+      switch (options.getString("buffer")) {
+        case "effect":
+          return EFFECT;
+        case "stream":
+          return STREAM;
+        case "streaming":
+          return STREAMING;
+        default:
+          return DEFAULT;
+      }
+    }
+
+    if (options.getType("buffer") != ReadableType.Map) {
+      return DEFAULT;
+    }
+
+    ReadableMap buffer = options.getMap("buffer");
+
+    return new BufferProfile("custom",
+            buffer.hasKey("minBufferMs") ? buffer.getInt("minBufferMs") : DEFAULT.minBufferMs,
+            buffer.hasKey("maxBufferMs") ? buffer.getInt("maxBufferMs") : DEFAULT.maxBufferMs,
+            buffer.hasKey("bufferForPlaybackMs") ? buffer.getInt("bufferForPlaybackMs") : DEFAULT.bufferForPlaybackMs,
+            buffer.hasKey("bufferForPlaybackAfterRebufferMs") ? buffer.getInt("bufferForPlaybackAfterRebufferMs") : DEFAULT.bufferForPlaybackAfterRebufferMs,
+            buffer.hasKey("maxBufferBytes") ? buffer.getInt("maxBufferBytes") : DEFAULT.maxBufferBytes);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof BufferProfile)) {
+      return false;
+    }
+
+    BufferProfile other = (BufferProfile) o;
+
+    return this.name.equals(other.name)
+            && this.minBufferMs == other.minBufferMs
+            && this.maxBufferMs == other.maxBufferMs
+            && this.bufferForPlaybackMs == other.bufferForPlaybackMs
+            && this.bufferForPlaybackAfterRebufferMs == other.bufferForPlaybackAfterRebufferMs
+            && this.maxBufferBytes == other.maxBufferBytes
+            && this.shared == other.shared;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = this.name.hashCode();
+    result = 31 * result + this.minBufferMs;
+    result = 31 * result + this.maxBufferMs;
+    result = 31 * result + this.bufferForPlaybackMs;
+    result = 31 * result + this.bufferForPlaybackAfterRebufferMs;
+    result = 31 * result + this.maxBufferBytes;
+    result = 31 * result + (this.shared ? 1 : 0);
+
+    return result;
+  }
+}
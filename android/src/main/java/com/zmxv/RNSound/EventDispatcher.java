@@ -0,0 +1,174 @@
+package com.zmxv.RNSound;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Queue events of all players and emit them once per frame as one array payload per event name.
+ * The queue is bounded, the oldest events are dropped when it is full.
+ */
+public class EventDispatcher implements Choreographer.FrameCallback, Runnable {
+  static final int DEFAULT_CAPACITY = 256;
+  static final int DEFAULT_THROTTLE_MS = 0;
+
+  /**
+   * Receiver of coalesced events, called on main thread
+   */
+  public interface Emitter {
+    void emit(String eventName, WritableArray events);
+  }
+
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final Emitter emitter;
+
+  // Ring buffer of queued events
+  private String[] eventNames = new String[DEFAULT_CAPACITY];
+  private WritableMap[] events = new WritableMap[DEFAULT_CAPACITY];
+  private int head = 0;
+  private int size = 0;
+
+  private int throttleMs = DEFAULT_THROTTLE_MS;
+  private long lastFlushTime = 0;
+  private boolean scheduled = false;
+  private long dropped = 0;
+
+  public EventDispatcher(Emitter emitter) {
+    this.emitter = emitter;
+  }
+
+  /**
+   * Queue event and schedule flush on next frame
+   *
+   * @param eventName
+   * @param event
+   */
+  public synchronized void enqueue(String eventName, WritableMap event) {
+    int capacity = this.events.length;
+
+    // Drop oldest event on full queue
+    if (this.size == capacity) {
+      this.head = (this.head + 1) % capacity;
+      this.size--;
+      this.dropped++;
+    }
+
+    int tail = (this.head + this.size) % capacity;
+    this.eventNames[tail] = eventName;
+    this.events[tail] = event;
+    this.size++;
+
+    if (!this.scheduled) {
+      this.scheduled = true;
+      this.mainHandler.post(this);
+    }
+  }
+
+  /**
+   * Set minimum time between two flushes, 0 flushes on every frame
+   *
+   * @param throttleMs
+   */
+  public synchronized void setThrottle(int throttleMs) {
+    this.throttleMs = Math.max(0, throttleMs);
+  }
+
+  /**
+   * Set maximum count of queued events, queued events above it are dropped
+   *
+   * @param capacity
+   */
+  public synchronized void setCapacity(int capacity) {
+    capacity = Math.max(1, capacity);
+    String[] eventNames = new String[capacity];
+    WritableMap[] events = new WritableMap[capacity];
+
+    // Keep newest events
+    int skip = Math.max(0, this.size - capacity);
+    this.dropped += skip;
+
+    for (int i = skip; i < this.size; i++) {
+      int index = (this.head + i) % this.events.length;
+      eventNames[i - skip] = this.eventNames[index];
+      events[i - skip] = this.events[index];
+    }
+
+    this.eventNames = eventNames;
+    this.events = events;
+    this.head = 0;
+    this.size -= skip;
+  }
+
+  public synchronized long getDropped() {
+    return this.dropped;
+  }
+
+  public synchronized void clear() {
+    for (int i = 0; i < this.events.length; i++) {
+      this.eventNames[i] = null;
+      this.events[i] = null;
+    }
+
+    this.head = 0;
+    this.size = 0;
+  }
+
+  /**
+   * Wait for next frame on main thread
+   */
+  @Override
+  public void run() {
+    Choreographer.getInstance().postFrameCallback(this);
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    Map<String, WritableArray> payloads;
+
+    synchronized (this) {
+      // Wait for throttle interval to pass
+      long delay = this.lastFlushTime + this.throttleMs - SystemClock.uptimeMillis();
+      if (delay > 0) {
+        Choreographer.getInstance().postFrameCallbackDelayed(this, delay);
+
+        return;
+      }
+
+      this.lastFlushTime = SystemClock.uptimeMillis();
+      this.scheduled = false;
+
+      // Group queued events by name in order of first occurrence
+      payloads = new LinkedHashMap<>();
+      int capacity = this.events.length;
+
+      for (int i = 0; i < this.size; i++) {
+        int index = (this.head + i) % capacity;
+        WritableArray payload = payloads.get(this.eventNames[index]);
+
+        if (payload == null) {
+          payload = Arguments.createArray();
+          payloads.put(this.eventNames[index], payload);
+        }
+
+        payload.pushMap(this.events[index]);
+        this.eventNames[index] = null;
+        this.events[index] = null;
+      }
+
+      this.head = 0;
+      this.size = 0;
+    }
+
+    for (Map.Entry<String, WritableArray> entry : payloads.entrySet()) {
+      this.emitter.emit(entry.getKey(), entry.getValue());
+    }
+  }
+}
@@ -8,8 +8,9 @@ import com.facebook.react.bridge.WritableMap;
 import com.google.android.exoplayer2.ExoPlaybackException;
 import com.google.android.exoplayer2.ExoPlayer;
 import com.google.android.exoplayer2.PlaybackParameters;
-import com.google.android.exoplayer2.SimpleExoPlayer;
 import com.google.android.exoplayer2.Timeline;
+import com.google.android.exoplayer2.source.LoopingMediaSource;
+import com.google.android.exoplayer2.source.MediaSource;
 import com.google.android.exoplayer2.source.TrackGroupArray;
 import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
 
@@ -20,20 +21,55 @@ public class ExoPlayerEventListener implements ExoPlayer.EventListener {
     final static Object NULL = null;
     private RNSoundModule module;
     private Integer key;
-    private SimpleExoPlayer player;
+    private ProcessingExoPlayer player;
+    private MediaSource source;
+    private int itemCount;
 
     private Callback callbackPrepare;
     private boolean initCallbackWasCalled = false;
 
-    private boolean shouldLooping = false;
+    private int numberOfLoops = 0;
+    private int currentItemIndex = 0;
 
-    public ExoPlayerEventListener(RNSoundModule module, Integer key, SimpleExoPlayer player, Callback callbackPrepare) {
+    // Loop count set during playback, which is applied at the end of a loop, on pause or on end
+    private Integer pendingNumberOfLoops = null;
+    private int pendingLoopEnds = 0;
+
+    // Whether prepared source repeats other than numberOfLoops, until the player is paused
+    private boolean sourceOutdated = false;
+
+    private long prepareStartNanos = System.nanoTime();
+    private int lastPlaybackState = ExoPlayer.STATE_IDLE;
+
+    public ExoPlayerEventListener(RNSoundModule module, Integer key, ProcessingExoPlayer player, MediaSource source, int itemCount, int numberOfLoops, Callback callbackPrepare) {
         this.module = module;
         this.key = key;
         this.player = player;
+        this.source = source;
+        this.itemCount = itemCount;
+        this.numberOfLoops = numberOfLoops;
         this.callbackPrepare = callbackPrepare;
     }
 
+    /**
+     * Wrap media source into a LoopingMediaSource, so ExoPlayer buffers the next repetition ahead
+     * and loops without gap or seek
+     *
+     * @param source
+     * @param numberOfLoops Count of repetitions after first playback, negative for infinite looping
+     * @return Source to prepare player with
+     */
+    static MediaSource createLoopingSource(MediaSource source, int numberOfLoops) {
+        if (numberOfLoops < 0) {
+            return new LoopingMediaSource(source);
+        }
+        else if (numberOfLoops > 0) {
+            return new LoopingMediaSource(source, numberOfLoops + 1);
+        }
+
+        return source;
+    }
+
     @Override
     public void onTimelineChanged(Timeline timeline, Object o) {
     }
@@ -48,15 +84,31 @@ public class ExoPlayerEventListener implements ExoPlayer.EventListener {
 
     @Override
     public void onPlayerStateChanged(boolean b, int i) {
-        // On player is loaded media source put player in playerPool
+        int previousPlaybackState = this.lastPlaybackState;
+
+        // Count buffering during playback as rebuffer
+        if (i == ExoPlayer.STATE_BUFFERING && b && previousPlaybackState == ExoPlayer.STATE_READY) {
+            this.module.playbackMetrics.recordRebuffer();
+        }
+        this.lastPlaybackState = i;
+
+        // Player is paused, so loop count set during playback can be applied without a gap
+        if (!b) {
+            this.applyPendingNumberOfLoops();
+        }
+
+        // On player is loaded media source mark player as ready in registry
         if (i == ExoPlayer.STATE_READY) {
             if (this.initCallbackWasCalled) return;
             this.initCallbackWasCalled = true;
 
-            // Put player intro pool
-            this.module.playerPool.put(this.key, this.player);
+            this.module.playbackMetrics.recordPrepare((System.nanoTime() - this.prepareStartNanos) / 1000000.0);
+
+            // Mark player as ready in registry
+            this.module.markPlayerReady(this.key, this.player);
             WritableMap props = Arguments.createMap();
             props.putDouble("duration", this.player.getDuration() * .001);
+            props.putInt("queueLength", this.itemCount);
 
             // Execute callback successful
             try {
@@ -68,30 +120,91 @@ public class ExoPlayerEventListener implements ExoPlayer.EventListener {
             }
         }
 
-        // On playback ends, restart it (if looping is active)
-        if (i == ExoPlayer.STATE_ENDED) {
-            if (this.shouldLooping) {
-                this.player.seekTo(0);
-            }
-            else {
-                // Send isPlaying false event to event emitter
-                WritableMap data = Arguments.createMap();
-                data.putBoolean("isPlaying", false);
-                Long positionInMs = player.getCurrentPosition();
-                data.putDouble("currentTime", Math.floor(positionInMs * .001));
-                module.sendEvent("RNSound-playing", key, data);
+        // On playback ends (after all loops) send isPlaying false event to event emitter
+        if (i == ExoPlayer.STATE_ENDED && previousPlaybackState != ExoPlayer.STATE_ENDED) {
+            // Source ran out before the repetitions added during playback
+            if (b && this.continuePendingLoops()) {
+                return;
             }
+
+            this.sendEnded(this.player.getCurrentPosition());
         }
     }
 
+    /**
+     * Play repetitions of a loop count set during playback, which the ended source did not have
+     *
+     * @return Whether playback continues
+     */
+    private boolean continuePendingLoops() {
+        if (this.pendingNumberOfLoops == null) {
+            return false;
+        }
+
+        int remainingLoops = this.pendingNumberOfLoops < 0 ? -1 : this.pendingNumberOfLoops - this.pendingLoopEnds;
+        this.numberOfLoops = this.pendingNumberOfLoops;
+        this.pendingNumberOfLoops = null;
+        this.sourceOutdated = this.numberOfLoops >= 0;
+
+        if (remainingLoops == 0) {
+            return false;
+        }
+
+        this.player.prepare(createLoopingSource(this.source, remainingLoops < 0 ? -1 : remainingLoops - 1), true, true);
+
+        return true;
+    }
+
+    /**
+     * Apply loop count set during playback by preparing the paused player again
+     */
+    private void applyPendingNumberOfLoops() {
+        if (this.pendingNumberOfLoops != null) {
+            this.sourceOutdated = this.sourceOutdated || this.pendingNumberOfLoops != this.numberOfLoops;
+            this.numberOfLoops = this.pendingNumberOfLoops;
+            this.pendingNumberOfLoops = null;
+        }
+
+        if (this.sourceOutdated) {
+            this.prepareLoopingSource();
+        }
+    }
+
+    /**
+     * Prepare player again with source of numberOfLoops, at the same item and position. A player,
+     * whose playback ended, is paused and rewound, so it does not start again.
+     */
+    private void prepareLoopingSource() {
+        boolean ended = this.player.getPlaybackState() == ExoPlayer.STATE_ENDED;
+        int windowIndex = ended ? 0 : this.player.getCurrentWindowIndex() % this.itemCount;
+        long positionMs = ended ? 0 : this.player.getCurrentPosition();
+
+        this.sourceOutdated = false;
+        if (ended) {
+            this.player.setPlayWhenReady(false);
+        }
+        this.player.prepare(createLoopingSource(this.source, this.numberOfLoops), true, false);
+        this.player.seekTo(windowIndex, positionMs);
+    }
+
+    private void sendEnded(long positionInMs) {
+        WritableMap data = Arguments.createMap();
+        data.putBoolean("isPlaying", false);
+        data.putDouble("currentTime", Math.floor(positionInMs * .001));
+        module.sendEvent("RNSound-playing", key, data);
+        module.onPlayerEnded(key);
+    }
+
     // On player error throw error message in JS callback
     @Override
     public void onPlayerError(ExoPlaybackException e) {
         if (this.initCallbackWasCalled) return;
         this.initCallbackWasCalled = true;
 
-        // Remove this EventListener from RNSoundModule map
-        this.module.playerEventListenerPool.remove(this.key);
+        this.module.playbackMetrics.recordPrepareError();
+
+        // Remove player from registry, detach this EventListener and put player back into pool
+        this.module.recyclePlayer(this.key, this.player, this);
 
         // Execute callback error
         try {
@@ -106,20 +219,82 @@ public class ExoPlayerEventListener implements ExoPlayer.EventListener {
         }
     }
 
+    // On transition to another item of a queue send item event
     @Override
     public void onPositionDiscontinuity() {
+        // Windows of looping source repeat the items of queue
+        int itemIndex = this.player.getCurrentWindowIndex() % this.itemCount;
+        int previousItemIndex = this.currentItemIndex;
+
+        if (itemIndex != previousItemIndex) {
+            WritableMap data = Arguments.createMap();
+            data.putInt("index", itemIndex);
+            data.putInt("previousIndex", previousItemIndex);
+            data.putDouble("duration", this.player.getDuration() * .001);
+            module.sendEvent("RNSound-queue-item", key, data);
+
+            this.currentItemIndex = itemIndex;
+        }
+
+        // Count ends of loops for loop count set during playback, seeks do not end a loop
+        if (this.pendingNumberOfLoops == null || this.player.isSeeking()
+                || itemIndex != 0 || previousItemIndex != this.itemCount - 1) {
+            return;
+        }
+
+        this.pendingLoopEnds++;
+
+        // Requested repetitions were played, so end playback at the end of this loop
+        if (this.pendingNumberOfLoops >= 0 && this.pendingLoopEnds > this.pendingNumberOfLoops) {
+            long positionMs = this.player.getDuration();
+
+            this.player.setPlayWhenReady(false);
+            this.applyPendingNumberOfLoops();
+            this.player.seekTo(0, 0);
+            this.sendEnded(positionMs);
+        }
     }
 
     @Override
     public void onPlaybackParametersChanged(PlaybackParameters playbackParameters) {
     }
 
+    public MediaSource getSource() {
+        return this.source;
+    }
+
+    public int getItemCount() {
+        return this.itemCount;
+    }
+
+    public int getNumberOfLoops() {
+        return this.pendingNumberOfLoops != null ? this.pendingNumberOfLoops : this.numberOfLoops;
+    }
+
     /**
-     * Set looping of audio playback
+     * Set count of repetitions of audio playback, the player is prepared again with a looping
+     * source. Preparing a playing player interrupts it, so during playback the count applies to the
+     * repetitions after the current one: playback ends at the end of a loop once they are played,
+     * and the source is replaced on pause or at its end.
      *
-     * @param shouldLooping
+     * @param numberOfLoops Count of repetitions after first playback, negative for infinite looping
      */
-    public void setLooping(final Boolean shouldLooping) {
-        this.shouldLooping = shouldLooping;
+    public void setNumberOfLoops(final int numberOfLoops) {
+        this.pendingNumberOfLoops = null;
+
+        if (numberOfLoops == this.numberOfLoops && !this.sourceOutdated) {
+            return;
+        }
+
+        int state = this.player.getPlaybackState();
+        if (this.player.getPlayWhenReady() && state != ExoPlayer.STATE_IDLE && state != ExoPlayer.STATE_ENDED) {
+            this.pendingNumberOfLoops = numberOfLoops;
+            this.pendingLoopEnds = 0;
+
+            return;
+        }
+
+        this.numberOfLoops = numberOfLoops;
+        this.prepareLoopingSource();
     }
 }
@@ -0,0 +1,149 @@
+package com.zmxv.RNSound;
+
+import android.content.Context;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.trackselection.AdaptiveTrackSelection;
+import com.google.android.exoplayer2.trackselection.DefaultTrackSelector;
+import com.google.android.exoplayer2.trackselection.TrackSelection;
+import com.google.android.exoplayer2.trackselection.TrackSelector;
+import com.google.android.exoplayer2.upstream.BandwidthMeter;
+import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * Bounded pool of idle ExoPlayer instances, which are reset and prepared again
+ * instead of being released and constructed for every sound. Players are only reused for the same
+ * BufferProfile. Only used on the audio thread of RNSoundModule, so players are created with its looper.
+ */
+public class ExoPlayerPool {
+  static final int DEFAULT_MAX_SIZE = 8;
+
+  private Context context;
+  private MemoryBudget memoryBudget;
+
+  // Most recently recycled player first, least recently used player last
+  private LinkedList<ProcessingExoPlayer> idlePlayers = new LinkedList<>();
+  private int maxSize = DEFAULT_MAX_SIZE;
+
+  private long hits = 0;
+  private long misses = 0;
+  private long reclaimed = 0;
+
+  public ExoPlayerPool(Context context, MemoryBudget memoryBudget) {
+    this.context = context;
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * Get an idle player of profile from pool or create a new one, if pool has none
+   *
+   * @param profile
+   * @return Player instance in idle state
+   */
+  public ProcessingExoPlayer acquire(BufferProfile profile) {
+    Iterator<ProcessingExoPlayer> iterator = this.idlePlayers.iterator();
+
+    while (iterator.hasNext()) {
+      ProcessingExoPlayer player = iterator.next();
+
+      if (player.getBufferProfile().equals(profile)) {
+        iterator.remove();
+        this.hits++;
+
+        return player;
+      }
+    }
+
+    this.misses++;
+
+    return this.createPlayer(profile);
+  }
+
+  /**
+   * Reset player and put it back into pool. Listeners have to be removed by caller.
+   *
+   * @param player
+   */
+  public void recycle(ProcessingExoPlayer player) {
+    if (player == null) {
+      return;
+    }
+
+    // Reset player to the state of a new instance
+    player.setPlayWhenReady(false);
+    player.stop();
+    player.setVolume(1f);
+    player.getGainAudioProcessor().setVolumeImmediately(1f);
+    player.getGainAudioProcessor().setTap(null);
+    player.setPlaybackParameters(null);
+    player.setAudioStreamType(C.STREAM_TYPE_DEFAULT);
+    player.getLoadControl().resetPeakBytesAllocated();
+
+    this.idlePlayers.addFirst(player);
+    this.trim();
+  }
+
+  /**
+   * Set maximum count of idle players and reclaim least recently used players above it
+   *
+   * @param maxSize
+   */
+  public void setMaxSize(int maxSize) {
+    this.maxSize = Math.max(0, maxSize);
+    this.trim();
+  }
+
+  public int getMaxSize() {
+    return this.maxSize;
+  }
+
+  public int size() {
+    return this.idlePlayers.size();
+  }
+
+  public long getHits() {
+    return this.hits;
+  }
+
+  public long getMisses() {
+    return this.misses;
+  }
+
+  public long getReclaimed() {
+    return this.reclaimed;
+  }
+
+  /**
+   * Release all idle players
+   */
+  public void clear() {
+    while (!this.idlePlayers.isEmpty()) {
+      this.idlePlayers.removeLast().release();
+    }
+  }
+
+  private void trim() {
+    while (this.idlePlayers.size() > this.maxSize) {
+      this.idlePlayers.removeLast().release();
+      this.reclaimed++;
+    }
+  }
+
+  /**
+   * Create new ExoPlayer instance with audio processors of RNSound, LoadControl of profile and a default TrackSelector
+   *
+   * @param profile
+   * @return Player instance
+   */
+  private ProcessingExoPlayer createPlayer(BufferProfile profile) {
+    BandwidthMeter bandwidthMeter = new DefaultBandwidthMeter();
+    TrackSelection.Factory trackSelectionFactory = new AdaptiveTrackSelection.Factory(bandwidthMeter);
+
+    TrackSelector trackSelector = new DefaultTrackSelector(trackSelectionFactory);
+
+    return new ProcessingExoPlayer(this.context, trackSelector, new ProfileLoadControl(profile, this.memoryBudget));
+  }
+}
@@ -0,0 +1,66 @@
+package com.zmxv.RNSound;
+
+/**
+ * Curves of volume fades, shared by SoundMixer and GainAudioProcessor
+ */
+public class Fade {
+  static final int CURVE_LINEAR = 0;
+  static final int CURVE_EQUAL_POWER = 1;
+  static final int CURVE_EXPONENTIAL = 2;
+
+  /**
+   * Listener of end of fade, called on the thread which processes the audio
+   */
+  public interface Listener {
+    /**
+     * @param completed True if target volume was reached, false if fade was replaced by another fade or volume change
+     */
+    void onFadeEnded(boolean completed);
+  }
+
+  /**
+   * Get curve of name
+   *
+   * @param name linear, equalPower or exponential
+   * @return Curve constant, linear for unknown names
+   */
+  public static int parseCurve(String name) {
+    if ("equalPower".equals(name)) {
+      return CURVE_EQUAL_POWER;
+    }
+    if ("exponential".equals(name)) {
+      return CURVE_EXPONENTIAL;
+    }
+
+    return CURVE_LINEAR;
+  }
+
+  /**
+   * Get volume at progress of fade
+   *
+   * @param curve
+   * @param from Volume at start of fade
+   * @param to Volume at end of fade
+   * @param progress From 0 through 1
+   * @return Volume
+   */
+  public static float volumeAt(int curve, float from, float to, float progress) {
+    double shape;
+
+    switch (curve) {
+      case CURVE_EQUAL_POWER:
+        // Sine for fade in, cosine for fade out, so crossfaded sounds keep constant power
+        shape = to >= from ? Math.sin(progress * Math.PI / 2) : 1 - Math.cos(progress * Math.PI / 2);
+        break;
+      case CURVE_EXPONENTIAL:
+        // Slow start and fast end, perceived as even change of loudness
+        shape = (Math.exp(4 * progress) - 1) / (Math.exp(4) - 1);
+        break;
+      default:
+        shape = progress;
+        break;
+    }
+
+    return (float) (from + (to - from) * shape);
+  }
+}
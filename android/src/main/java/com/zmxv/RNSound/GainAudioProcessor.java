@@ -0,0 +1,244 @@
+package com.zmxv.RNSound;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.audio.AudioProcessor;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * AudioProcessor which applies volume and volume fades to 16 bit PCM on the playback thread of
+ * ExoPlayer. Volume changes are ramped over one buffer, so they are free of zipper noise. The
+ * output is written to an optional AudioTap in the same pass.
+ */
+public class GainAudioProcessor implements AudioProcessor {
+  private int sampleRate = Format.NO_VALUE;
+  private int channelCount = Format.NO_VALUE;
+  private ByteBuffer buffer = EMPTY_BUFFER;
+  private ByteBuffer outputBuffer = EMPTY_BUFFER;
+  private boolean inputEnded = false;
+
+  // Target volume and fade, set by audio thread of RNSoundModule
+  private float volume = 1;
+  private float appliedVolume = 1;
+  private float fadeFrom;
+  private int fadeCurve;
+  private long fadeDurationMs = 0;
+  private long fadeElapsedFrames;
+  private Fade.Listener fadeListener;
+
+  // Optional tap and its mono samples of one buffer, grown with buffer
+  private volatile AudioTap tap;
+  private float[] tapSamples = new float[0];
+
+  /**
+   * Set volume, which is reached at the end of the next processed buffer
+   *
+   * @param volume
+   */
+  public void setVolume(float volume) {
+    Fade.Listener replacedListener;
+
+    synchronized (this) {
+      replacedListener = this.fadeListener;
+      this.fadeListener = null;
+      this.fadeDurationMs = 0;
+      this.volume = volume;
+    }
+
+    if (replacedListener != null) {
+      replacedListener.onFadeEnded(false);
+    }
+  }
+
+  /**
+   * Set volume without ramp, e.g. before start of playback
+   *
+   * @param volume
+   */
+  public void setVolumeImmediately(float volume) {
+    synchronized (this) {
+      this.appliedVolume = volume;
+    }
+
+    this.setVolume(volume);
+  }
+
+  public synchronized float getVolume() {
+    return this.volume;
+  }
+
+  /**
+   * Set tap, which receives the processed audio
+   *
+   * @param tap AudioTap or null
+   */
+  public void setTap(AudioTap tap) {
+    this.tap = tap;
+  }
+
+  /**
+   * Fade from current volume to volume over duration of played audio
+   *
+   * @param volume
+   * @param durationMs
+   * @param curve Curve constant of Fade
+   * @param listener Optional listener of end of fade
+   */
+  public void fadeTo(float volume, long durationMs, int curve, Fade.Listener listener) {
+    Fade.Listener replacedListener;
+
+    synchronized (this) {
+      replacedListener = this.fadeListener;
+      this.fadeListener = listener;
+      this.fadeFrom = this.appliedVolume;
+      this.fadeCurve = curve;
+      this.fadeDurationMs = Math.max(1, durationMs);
+      this.fadeElapsedFrames = 0;
+      this.volume = volume;
+    }
+
+    if (replacedListener != null) {
+      replacedListener.onFadeEnded(false);
+    }
+  }
+
+  @Override
+  public boolean configure(int sampleRateHz, int channelCount, @C.Encoding int encoding) throws UnhandledFormatException {
+    if (encoding != C.ENCODING_PCM_16BIT) {
+      throw new UnhandledFormatException(sampleRateHz, channelCount, encoding);
+    }
+
+    if (this.sampleRate == sampleRateHz && this.channelCount == channelCount) {
+      return false;
+    }
+
+    this.sampleRate = sampleRateHz;
+    this.channelCount = channelCount;
+
+    return true;
+  }
+
+  @Override
+  public boolean isActive() {
+    return true;
+  }
+
+  @Override
+  public int getOutputChannelCount() {
+    return this.channelCount;
+  }
+
+  @Override
+  public int getOutputEncoding() {
+    return C.ENCODING_PCM_16BIT;
+  }
+
+  @Override
+  public void queueInput(ByteBuffer input) {
+    int position = input.position();
+    int limit = input.limit();
+    int frameCount = (limit - position) / (2 * this.channelCount);
+
+    if (this.buffer.capacity() < limit - position) {
+      this.buffer = ByteBuffer.allocateDirect(limit - position).order(ByteOrder.nativeOrder());
+    }
+    else {
+      this.buffer.clear();
+    }
+
+    // Volume at start and end of this buffer
+    float startVolume;
+    float endVolume;
+    Fade.Listener endedListener = null;
+
+    synchronized (this) {
+      startVolume = this.appliedVolume;
+      endVolume = this.volume;
+
+      if (this.fadeDurationMs > 0) {
+        long fadeFrames = Math.max(1, this.fadeDurationMs * this.sampleRate / 1000);
+        this.fadeElapsedFrames = Math.min(this.fadeElapsedFrames + frameCount, fadeFrames);
+
+        if (this.fadeElapsedFrames < fadeFrames) {
+          endVolume = Fade.volumeAt(this.fadeCurve, this.fadeFrom, this.volume, (float) this.fadeElapsedFrames / fadeFrames);
+        }
+        else {
+          this.fadeDurationMs = 0;
+          endedListener = this.fadeListener;
+          this.fadeListener = null;
+        }
+      }
+
+      this.appliedVolume = endVolume;
+    }
+
+    float step = frameCount > 0 ? (endVolume - startVolume) / frameCount : 0;
+
+    AudioTap tap = this.tap;
+    if (tap != null && this.tapSamples.length < frameCount) {
+      this.tapSamples = new float[frameCount];
+    }
+
+    for (int frame = 0; frame < frameCount; frame++) {
+      float gain = startVolume + step * frame;
+      float mono = 0;
+
+      for (int channel = 0; channel < this.channelCount; channel++) {
+        float sample = input.getShort() * gain;
+        sample = sample > Short.MAX_VALUE ? Short.MAX_VALUE : (sample < Short.MIN_VALUE ? Short.MIN_VALUE : sample);
+        this.buffer.putShort((short) sample);
+        mono += sample;
+      }
+
+      if (tap != null) {
+        this.tapSamples[frame] = mono / this.channelCount;
+      }
+    }
+
+    if (tap != null) {
+      tap.write(this.tapSamples, frameCount, this.sampleRate);
+    }
+
+    input.position(limit);
+    this.buffer.flip();
+    this.outputBuffer = this.buffer;
+
+    if (endedListener != null) {
+      endedListener.onFadeEnded(true);
+    }
+  }
+
+  @Override
+  public void queueEndOfStream() {
+    this.inputEnded = true;
+  }
+
+  @Override
+  public ByteBuffer getOutput() {
+    ByteBuffer outputBuffer = this.outputBuffer;
+    this.outputBuffer = EMPTY_BUFFER;
+
+    return outputBuffer;
+  }
+
+  @Override
+  public boolean isEnded() {
+    return this.inputEnded && this.outputBuffer == EMPTY_BUFFER;
+  }
+
+  @Override
+  public void flush() {
+    this.outputBuffer = EMPTY_BUFFER;
+    this.inputEnded = false;
+  }
+
+  @Override
+  public void release() {
+    this.flush();
+    this.buffer = EMPTY_BUFFER;
+    this.sampleRate = Format.NO_VALUE;
+    this.channelCount = Format.NO_VALUE;
+  }
+}
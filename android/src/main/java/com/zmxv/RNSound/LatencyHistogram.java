@@ -0,0 +1,79 @@
+package com.zmxv.RNSound;
+
+/**
+ * Histogram of latencies with fixed bucket bounds
+ */
+public class LatencyHistogram {
+  // Upper bounds of buckets in milliseconds, last bucket is unbounded
+  static final double[] BUCKET_BOUNDS_MS = { 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000 };
+
+  private final long[] counts = new long[BUCKET_BOUNDS_MS.length + 1];
+  private long count = 0;
+  private double totalMs = 0;
+  private double maxMs = 0;
+
+  public synchronized void record(double latencyMs) {
+    int bucket = 0;
+    while (bucket < BUCKET_BOUNDS_MS.length && latencyMs > BUCKET_BOUNDS_MS[bucket]) {
+      bucket++;
+    }
+
+    this.counts[bucket]++;
+    this.count++;
+    this.totalMs += latencyMs;
+    this.maxMs = Math.max(this.maxMs, latencyMs);
+  }
+
+  public synchronized long getCount() {
+    return this.count;
+  }
+
+  public synchronized double getAverageMs() {
+    return this.count > 0 ? this.totalMs / this.count : 0;
+  }
+
+  public synchronized double getMaxMs() {
+    return this.maxMs;
+  }
+
+  /**
+   * Get count of latencies in bucket
+   *
+   * @param bucket Index of bucket, BUCKET_BOUNDS_MS.length for unbounded bucket
+   * @return Count
+   */
+  public synchronized long getBucketCount(int bucket) {
+    return this.counts[bucket];
+  }
+
+  /**
+   * Get upper bound of bucket, which contains the percentile
+   *
+   * @param percentile Between 0 and 1
+   * @return Upper bound in milliseconds or maximum latency for unbounded bucket
+   */
+  public synchronized double getPercentileMs(double percentile) {
+    long threshold = (long) Math.ceil(this.count * percentile);
+    long sum = 0;
+
+    for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+      sum += this.counts[i];
+
+      if (sum >= threshold && sum > 0) {
+        return BUCKET_BOUNDS_MS[i];
+      }
+    }
+
+    return this.maxMs;
+  }
+
+  public synchronized void reset() {
+    for (int i = 0; i < this.counts.length; i++) {
+      this.counts[i] = 0;
+    }
+
+    this.count = 0;
+    this.totalMs = 0;
+    this.maxMs = 0;
+  }
+}
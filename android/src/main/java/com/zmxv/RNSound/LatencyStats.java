@@ -0,0 +1,45 @@
+package com.zmxv.RNSound;
+
+/**
+ * Minimum, average and maximum of measured latencies
+ */
+public class LatencyStats {
+  private long count = 0;
+  private double totalMs = 0;
+  private double minMs = 0;
+  private double maxMs = 0;
+
+  /**
+   * Add measured latency
+   *
+   * @param latencyMs
+   */
+  public synchronized void record(double latencyMs) {
+    if (this.count == 0 || latencyMs < this.minMs) {
+      this.minMs = latencyMs;
+    }
+
+    if (this.count == 0 || latencyMs > this.maxMs) {
+      this.maxMs = latencyMs;
+    }
+
+    this.count++;
+    this.totalMs += latencyMs;
+  }
+
+  public synchronized long getCount() {
+    return this.count;
+  }
+
+  public synchronized double getMinMs() {
+    return this.minMs;
+  }
+
+  public synchronized double getAverageMs() {
+    return this.count > 0 ? this.totalMs / this.count : 0;
+  }
+
+  public synchronized double getMaxMs() {
+    return this.maxMs;
+  }
+}
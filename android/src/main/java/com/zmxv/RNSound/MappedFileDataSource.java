@@ -0,0 +1,137 @@
+package com.zmxv.RNSound;
+
+import android.net.Uri;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.TransferListener;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * DataSource of local files, which reads from memory mapped windows of the file instead of
+ * buffered stream reads. Pages are loaded by the kernel on access and no intermediate
+ * buffers are allocated per read.
+ */
+public class MappedFileDataSource implements DataSource {
+  static final int DEFAULT_WINDOW_SIZE = 8 * 1024 * 1024;
+
+  /**
+   * Factory of MappedFileDataSource instances
+   */
+  public static class Factory implements DataSource.Factory {
+    private final TransferListener<? super MappedFileDataSource> listener;
+
+    public Factory(TransferListener<? super MappedFileDataSource> listener) {
+      this.listener = listener;
+    }
+
+    @Override
+    public DataSource createDataSource() {
+      return new MappedFileDataSource(this.listener, DEFAULT_WINDOW_SIZE);
+    }
+  }
+
+  private final TransferListener<? super MappedFileDataSource> listener;
+  private final int windowSize;
+
+  private Uri uri;
+  private RandomAccessFile file;
+  private FileChannel channel;
+  private MappedByteBuffer window;
+  private long position;
+  private long bytesRemaining;
+  private boolean opened;
+
+  /**
+   * Create data source
+   *
+   * @param listener Optional listener of transferred bytes
+   * @param windowSize Maximum count of bytes mapped at the same time
+   */
+  public MappedFileDataSource(TransferListener<? super MappedFileDataSource> listener, int windowSize) {
+    this.listener = listener;
+    this.windowSize = windowSize;
+  }
+
+  @Override
+  public long open(DataSpec dataSpec) throws IOException {
+    this.uri = dataSpec.uri;
+    this.file = new RandomAccessFile(dataSpec.uri.getPath(), "r");
+    this.channel = this.file.getChannel();
+    this.position = dataSpec.position;
+    this.bytesRemaining = dataSpec.length == C.LENGTH_UNSET ? this.channel.size() - dataSpec.position : dataSpec.length;
+
+    if (this.bytesRemaining < 0) {
+      throw new EOFException();
+    }
+
+    this.opened = true;
+    if (this.listener != null) {
+      this.listener.onTransferStart(this, dataSpec);
+    }
+
+    return this.bytesRemaining;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int readLength) throws IOException {
+    if (readLength == 0) {
+      return 0;
+    }
+    if (this.bytesRemaining == 0) {
+      return C.RESULT_END_OF_INPUT;
+    }
+
+    // Map next window of file, if current one is exhausted
+    if (this.window == null || !this.window.hasRemaining()) {
+      long size = Math.min(this.windowSize, this.bytesRemaining);
+      this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, size);
+    }
+
+    int bytesRead = (int) Math.min(Math.min(readLength, this.window.remaining()), this.bytesRemaining);
+    this.window.get(buffer, offset, bytesRead);
+    this.position += bytesRead;
+    this.bytesRemaining -= bytesRead;
+
+    if (this.listener != null) {
+      this.listener.onBytesTransferred(this, bytesRead);
+    }
+
+    return bytesRead;
+  }
+
+  @Override
+  public Uri getUri() {
+    return this.uri;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.uri = null;
+    this.window = null;
+
+    try {
+      if (this.file != null) {
+        this.file.close();
+      }
+    }
+    finally {
+      this.file = null;
+      this.channel = null;
+
+      if (this.opened) {
+        this.opened = false;
+
+        if (this.listener != null) {
+          this.listener.onTransferEnd(this);
+        }
+      }
+    }
+  }
+}
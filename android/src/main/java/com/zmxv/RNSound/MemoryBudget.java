@@ -0,0 +1,154 @@
+package com.zmxv.RNSound;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.Allocation;
+import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.upstream.DefaultAllocator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Memory of buffered media of all players. Each player allocates through a counting Allocator, so
+ * loading stops at the ceiling of the player or when all players together reach the global ceiling.
+ * Players of shared profiles take fixed-size segments from one pool, which are reused across players
+ * instead of being allocated and trimmed per player.
+ */
+public class MemoryBudget {
+  static final int DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
+  static final int DEFAULT_SHARED_POOL_BYTES = 4 * 1024 * 1024;
+
+  // Players below it keep loading above the global ceiling, so no player starves
+  static final int MIN_PLAYER_BYTES = 4 * C.DEFAULT_BUFFER_SEGMENT_SIZE;
+
+  /**
+   * Allocator of one player, which counts the bytes it holds
+   */
+  class PlayerAllocator implements Allocator {
+    private final DefaultAllocator allocator;
+    private final AtomicInteger bytesAllocated = new AtomicInteger();
+
+    PlayerAllocator(DefaultAllocator allocator) {
+      this.allocator = allocator;
+    }
+
+    @Override
+    public Allocation allocate() {
+      Allocation allocation = this.allocator.allocate();
+      this.add(this.allocator.getIndividualAllocationLength());
+
+      return allocation;
+    }
+
+    @Override
+    public void release(Allocation allocation) {
+      this.allocator.release(allocation);
+      this.add(-this.allocator.getIndividualAllocationLength());
+    }
+
+    @Override
+    public void release(Allocation[] allocations) {
+      this.allocator.release(allocations);
+      this.add(-allocations.length * this.allocator.getIndividualAllocationLength());
+    }
+
+    @Override
+    public void trim() {
+      this.allocator.trim();
+    }
+
+    @Override
+    public int getTotalBytesAllocated() {
+      return this.bytesAllocated.get();
+    }
+
+    @Override
+    public int getIndividualAllocationLength() {
+      return this.allocator.getIndividualAllocationLength();
+    }
+
+    private void add(int bytes) {
+      this.bytesAllocated.addAndGet(bytes);
+      MemoryBudget.this.bytesAllocated.addAndGet(bytes);
+    }
+  }
+
+  private final DefaultAllocator sharedAllocator = new DefaultAllocator(false, C.DEFAULT_BUFFER_SEGMENT_SIZE);
+  private final AtomicInteger bytesAllocated = new AtomicInteger();
+
+  private volatile int maxBytes = DEFAULT_MAX_BYTES;
+  private volatile int maxPlayerBytes = C.LENGTH_UNSET;
+
+  public MemoryBudget() {
+    // Free segments of the shared pool are kept for reuse up to this size
+    this.sharedAllocator.setTargetBufferSize(DEFAULT_SHARED_POOL_BYTES);
+  }
+
+  /**
+   * Create counting allocator of a player
+   *
+   * @param allocator Own allocator of player or null to allocate from shared pool
+   * @return Allocator
+   */
+  public Allocator createAllocator(DefaultAllocator allocator) {
+    return new PlayerAllocator(allocator != null ? allocator : this.sharedAllocator);
+  }
+
+  /**
+   * Set ceilings of buffered media
+   *
+   * @param maxBytes Bytes of all players together, C.LENGTH_UNSET for no ceiling
+   * @param maxPlayerBytes Bytes of each player, C.LENGTH_UNSET for the limit of its profile only
+   */
+  public void setLimits(int maxBytes, int maxPlayerBytes) {
+    this.maxBytes = maxBytes;
+    this.maxPlayerBytes = maxPlayerBytes;
+  }
+
+  public int getMaxBytes() {
+    return this.maxBytes;
+  }
+
+  public int getMaxPlayerBytes() {
+    return this.maxPlayerBytes;
+  }
+
+  /**
+   * Get bytes currently held by all players
+   *
+   * @return Bytes
+   */
+  public int getBytesAllocated() {
+    return this.bytesAllocated.get();
+  }
+
+  /**
+   * Get bytes of the shared pool currently held by players of shared profiles
+   *
+   * @return Bytes
+   */
+  public int getSharedBytesAllocated() {
+    return this.sharedAllocator.getTotalBytesAllocated();
+  }
+
+  /**
+   * Check if a player holding playerBytes may load more media
+   *
+   * @param playerBytes
+   * @param profileMaxBytes Ceiling of profile of player, C.LENGTH_UNSET for none
+   * @return Whether a ceiling is reached
+   */
+  public boolean isLimitReached(int playerBytes, int profileMaxBytes) {
+    int maxPlayerBytes = this.maxPlayerBytes;
+    if (profileMaxBytes != C.LENGTH_UNSET && (maxPlayerBytes == C.LENGTH_UNSET || profileMaxBytes < maxPlayerBytes)) {
+      maxPlayerBytes = profileMaxBytes;
+    }
+
+    if (maxPlayerBytes != C.LENGTH_UNSET && playerBytes >= maxPlayerBytes) {
+      return true;
+    }
+
+    int maxBytes = this.maxBytes;
+
+    return maxBytes != C.LENGTH_UNSET && playerBytes >= MIN_PLAYER_BYTES && this.bytesAllocated.get() >= maxBytes;
+  }
+}
@@ -0,0 +1,231 @@
+package com.zmxv.RNSound;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache of decoded clips by file name with a memory budget and least recently used eviction. Variants
+ * of a clip rendered at other speeds are cached under the file name, VARIANT_SEPARATOR and their
+ * mode and speed. They share the memory budget, but are left out of the statistics, which describe
+ * decoded files.
+ */
+public class PcmCache implements ComponentCallbacks2 {
+  static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+  static final String VARIANT_SEPARATOR = "@";
+
+  // Access ordered, least recently used clip first
+  private final LinkedHashMap<String, PcmClip> clips = new LinkedHashMap<>(16, .75f, true);
+  private long maxBytes = DEFAULT_MAX_BYTES;
+  private long sizeInBytes = 0;
+
+  // Keys and size of cached variants
+  private final Set<String> variantKeys = new HashSet<>();
+  private long variantSizeInBytes = 0;
+
+  private long hits = 0;
+  private long misses = 0;
+  private long evictions = 0;
+
+  /**
+   * Get cached clip of file
+   *
+   * @param fileName
+   * @return Clip or null, if file is not cached
+   */
+  public synchronized PcmClip get(String fileName) {
+    PcmClip clip = this.clips.get(fileName);
+
+    if (clip != null) {
+      this.hits++;
+    }
+    else {
+      this.misses++;
+    }
+
+    return clip;
+  }
+
+  /**
+   * Get cached clip of file or variant without counting the lookup in hit statistics, for internal
+   * reads of the module
+   *
+   * @param key File name or key of variant
+   * @return Clip or null, if it is not cached
+   */
+  public synchronized PcmClip peek(String key) {
+    return this.clips.get(key);
+  }
+
+  /**
+   * Add clip of file and evict least recently used clips above memory budget.
+   * Clips larger than the whole budget are not cached.
+   *
+   * @param fileName
+   * @param clip
+   */
+  public synchronized void put(String fileName, PcmClip clip) {
+    this.add(fileName, clip, false);
+  }
+
+  /**
+   * Add variant of a clip like put(), it is left out of the statistics
+   *
+   * @param variantKey
+   * @param clip
+   */
+  public synchronized void putVariant(String variantKey, PcmClip clip) {
+    this.add(variantKey, clip, true);
+  }
+
+  private void add(String key, PcmClip clip, boolean variant) {
+    if (clip.getSizeInBytes() > this.maxBytes) {
+      return;
+    }
+
+    PcmClip previous = this.clips.put(key, clip);
+
+    if (previous != null) {
+      this.removed(key, previous, false);
+    }
+
+    this.sizeInBytes += clip.getSizeInBytes();
+    if (variant) {
+      this.variantKeys.add(key);
+      this.variantSizeInBytes += clip.getSizeInBytes();
+    }
+
+    this.trimToSize(this.maxBytes);
+  }
+
+  /**
+   * Update size and statistics for clip, which was removed from clips
+   *
+   * @param key
+   * @param clip
+   * @param evicted Whether clip was evicted rather than replaced
+   */
+  private void removed(String key, PcmClip clip, boolean evicted) {
+    this.sizeInBytes -= clip.getSizeInBytes();
+
+    if (this.variantKeys.remove(key)) {
+      this.variantSizeInBytes -= clip.getSizeInBytes();
+    }
+    else if (evicted) {
+      this.evictions++;
+    }
+  }
+
+  /**
+   * Remove clip of file and its variants from cache. Voices which use the clips keep playing them.
+   *
+   * @param fileName
+   */
+  public synchronized void evict(String fileName) {
+    String variantPrefix = fileName + VARIANT_SEPARATOR;
+    Iterator<Map.Entry<String, PcmClip>> iterator = this.clips.entrySet().iterator();
+
+    while (iterator.hasNext()) {
+      Map.Entry<String, PcmClip> entry = iterator.next();
+
+      if (entry.getKey().equals(fileName) || entry.getKey().startsWith(variantPrefix)) {
+        iterator.remove();
+
+        this.removed(entry.getKey(), entry.getValue(), true);
+      }
+    }
+  }
+
+  public synchronized void setMaxBytes(long maxBytes) {
+    this.maxBytes = Math.max(0, maxBytes);
+    this.trimToSize(this.maxBytes);
+  }
+
+  public synchronized long getMaxBytes() {
+    return this.maxBytes;
+  }
+
+  /**
+   * Get size of decoded files, without variants
+   *
+   * @return Bytes
+   */
+  public synchronized long getSizeInBytes() {
+    return this.sizeInBytes - this.variantSizeInBytes;
+  }
+
+  /**
+   * Get size of all cached clips, which count toward the memory budget
+   *
+   * @return Bytes
+   */
+  public synchronized long getTotalSizeInBytes() {
+    return this.sizeInBytes;
+  }
+
+  /**
+   * Get count of decoded files, without variants
+   *
+   * @return Count
+   */
+  public synchronized int getCount() {
+    return this.clips.size() - this.variantKeys.size();
+  }
+
+  public synchronized long getHits() {
+    return this.hits;
+  }
+
+  public synchronized long getMisses() {
+    return this.misses;
+  }
+
+  public synchronized long getEvictions() {
+    return this.evictions;
+  }
+
+  /**
+   * Evict least recently used clips until size of cache fits into bytes
+   *
+   * @param bytes
+   */
+  public synchronized void trimToSize(long bytes) {
+    Iterator<Map.Entry<String, PcmClip>> iterator = this.clips.entrySet().iterator();
+
+    while (this.sizeInBytes > bytes && iterator.hasNext()) {
+      Map.Entry<String, PcmClip> entry = iterator.next();
+      iterator.remove();
+
+      this.removed(entry.getKey(), entry.getValue(), true);
+    }
+  }
+
+  /**
+   * On low memory signal of system shrink or clear cache
+   *
+   * @param level
+   */
+  @Override
+  public void onTrimMemory(int level) {
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+      this.trimToSize(0);
+    }
+    else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+      this.trimToSize(this.getMaxBytes() / 2);
+    }
+  }
+
+  @Override
+  public void onLowMemory() {
+    this.trimToSize(0);
+  }
+
+  @Override
+  public void onConfigurationChanged(Configuration configuration) {
+  }
+}
@@ -0,0 +1,36 @@
+package com.zmxv.RNSound;
+
+/**
+ * Decoded audio clip as interleaved 16 bit stereo PCM at the output sample rate of SoundMixer
+ */
+public class PcmClip {
+  final short[] samples;
+  final int frameCount;
+  final int sampleRate;
+  final int sourceChannelCount;
+
+  public PcmClip(short[] samples, int sampleRate, int sourceChannelCount) {
+    this.samples = samples;
+    this.frameCount = samples.length / 2;
+    this.sampleRate = sampleRate;
+    this.sourceChannelCount = sourceChannelCount;
+  }
+
+  /**
+   * Get duration of clip
+   *
+   * @return Duration in milliseconds
+   */
+  public long getDurationMs() {
+    return (long) this.frameCount * 1000 / this.sampleRate;
+  }
+
+  /**
+   * Get memory used by samples of clip
+   *
+   * @return Size in bytes
+   */
+  public long getSizeInBytes() {
+    return (long) this.samples.length * 2;
+  }
+}
@@ -0,0 +1,198 @@
+package com.zmxv.RNSound;
+
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * Decode audio files into PCM clips via MediaExtractor and MediaCodec
+ */
+public class PcmDecoder {
+  private static final long TIMEOUT_US = 10000;
+
+  // Decoded size above which a file is not decoded into memory
+  static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+  /**
+   * Thrown if the decoded clip of a file would exceed the maximum size
+   */
+  public static class TooLargeException extends IOException {
+    public TooLargeException(String message) {
+      super(message);
+    }
+  }
+
+  /**
+   * Decode first audio track of a file and convert it to stereo with the given sample rate
+   *
+   * @param fileName Path of local file
+   * @param outputSampleRate
+   * @param maxBytes Maximum size of decoded samples
+   * @return Decoded clip
+   * @throws IOException If file could not be read or decoded
+   * @throws TooLargeException If decoded clip would exceed maxBytes
+   */
+  public static PcmClip decode(final String fileName, final int outputSampleRate, final long maxBytes) throws IOException {
+    MediaExtractor extractor = new MediaExtractor();
+    MediaCodec codec = null;
+
+    try {
+      extractor.setDataSource(fileName);
+
+      // Find first audio track
+      MediaFormat format = null;
+      for (int i = 0; i < extractor.getTrackCount(); i++) {
+        MediaFormat trackFormat = extractor.getTrackFormat(i);
+
+        if (trackFormat.getString(MediaFormat.KEY_MIME).startsWith("audio/")) {
+          extractor.selectTrack(i);
+          format = trackFormat;
+          break;
+        }
+      }
+
+      if (format == null) {
+        throw new IOException("no audio track found");
+      }
+
+      int sampleRate = format.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+      int channelCount = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+
+      // Reject long files by their declared duration before decoding
+      if (format.containsKey(MediaFormat.KEY_DURATION)) {
+        long durationUs = format.getLong(MediaFormat.KEY_DURATION);
+
+        if (durationUs * outputSampleRate / 1000000 * 4 > maxBytes) {
+          throw new TooLargeException(String.format("decoded file exceeds %d bytes", maxBytes));
+        }
+      }
+
+      codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+      codec.configure(format, null, null, 0);
+      codec.start();
+
+      ByteBuffer[] inputBuffers = codec.getInputBuffers();
+      ByteBuffer[] outputBuffers = codec.getOutputBuffers();
+      MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+
+      short[] pcm = new short[sampleRate * channelCount];
+      int pcmLength = 0;
+      boolean inputDone = false;
+      boolean outputDone = false;
+
+      while (!outputDone) {
+        // Feed encoded samples to codec
+        if (!inputDone) {
+          int inputIndex = codec.dequeueInputBuffer(TIMEOUT_US);
+
+          if (inputIndex >= 0) {
+            ByteBuffer inputBuffer = inputBuffers[inputIndex];
+            inputBuffer.clear();
+            int size = extractor.readSampleData(inputBuffer, 0);
+
+            if (size < 0) {
+              codec.queueInputBuffer(inputIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+              inputDone = true;
+            }
+            else {
+              codec.queueInputBuffer(inputIndex, 0, size, extractor.getSampleTime(), 0);
+              extractor.advance();
+            }
+          }
+        }
+
+        // Collect decoded samples of codec
+        int outputIndex = codec.dequeueOutputBuffer(info, TIMEOUT_US);
+
+        if (outputIndex >= 0) {
+          ByteBuffer outputBuffer = outputBuffers[outputIndex];
+          outputBuffer.position(info.offset);
+          outputBuffer.limit(info.offset + info.size);
+          ShortBuffer samples = outputBuffer.order(ByteOrder.nativeOrder()).asShortBuffer();
+
+          int count = samples.remaining();
+
+          // Stop decoding as soon as samples in source or output format exceed maxBytes
+          long sourceBytes = (long) (pcmLength + count) * 2;
+          long outputBytes = (long) (pcmLength + count) / channelCount * outputSampleRate / sampleRate * 4;
+          if (Math.max(sourceBytes, outputBytes) > maxBytes) {
+            throw new TooLargeException(String.format("decoded file exceeds %d bytes", maxBytes));
+          }
+
+          if (pcmLength + count > pcm.length) {
+            short[] grown = new short[Math.max(pcm.length * 2, pcmLength + count)];
+            System.arraycopy(pcm, 0, grown, 0, pcmLength);
+            pcm = grown;
+          }
+          samples.get(pcm, pcmLength, count);
+          pcmLength += count;
+
+          outputBuffer.clear();
+          codec.releaseOutputBuffer(outputIndex, false);
+
+          if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+            outputDone = true;
+          }
+        }
+        else if (outputIndex == MediaCodec.INFO_OUTPUT_BUFFERS_CHANGED) {
+          outputBuffers = codec.getOutputBuffers();
+        }
+        else if (outputIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+          MediaFormat outputFormat = codec.getOutputFormat();
+          sampleRate = outputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+          channelCount = outputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+        }
+      }
+
+      return new PcmClip(toStereo(pcm, pcmLength, channelCount, sampleRate, outputSampleRate), outputSampleRate, channelCount);
+    }
+    catch (IllegalStateException e) {
+      throw new IOException(e.getMessage());
+    }
+    finally {
+      if (codec != null) {
+        codec.release();
+      }
+
+      extractor.release();
+    }
+  }
+
+  /**
+   * Convert interleaved samples to stereo and resample them linearly to the output sample rate
+   *
+   * @param pcm
+   * @param length Count of valid samples in pcm
+   * @param channelCount
+   * @param sampleRate
+   * @param outputSampleRate
+   * @return Interleaved stereo samples
+   */
+  private static short[] toStereo(short[] pcm, int length, int channelCount, int sampleRate, int outputSampleRate) {
+    int frameCount = length / channelCount;
+    int outputFrameCount = (int) ((long) frameCount * outputSampleRate / sampleRate);
+    short[] output = new short[outputFrameCount * 2];
+    double step = (double) sampleRate / outputSampleRate;
+    int rightChannel = channelCount > 1 ? 1 : 0;
+
+    for (int i = 0; i < outputFrameCount; i++) {
+      double position = i * step;
+      int frame = (int) position;
+      int nextFrame = Math.min(frame + 1, frameCount - 1);
+      double fraction = position - frame;
+
+      int left = frame * channelCount;
+      int nextLeft = nextFrame * channelCount;
+
+      output[i * 2] = (short) (pcm[left] + (pcm[nextLeft] - pcm[left]) * fraction);
+      output[i * 2 + 1] = (short) (pcm[left + rightChannel] + (pcm[nextLeft + rightChannel] - pcm[left + rightChannel]) * fraction);
+    }
+
+    return output;
+  }
+}
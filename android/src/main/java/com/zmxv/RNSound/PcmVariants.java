@@ -0,0 +1,163 @@
+package com.zmxv.RNSound;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.audio.AudioProcessor;
+import com.google.android.exoplayer2.audio.SonicAudioProcessor;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * Rate modes of setSpeed() and pre-rendering of clips at another speed. Pre-rendered variants are
+ * cached like decoded clips, so effects played repeatedly at the same rate cost no more than at
+ * normal speed.
+ */
+public class PcmVariants {
+  // Pitch follows speed, ExoPlayer and SoundMixer only interpolate samples
+  static final int MODE_RESAMPLE = 0;
+
+  // Pitch is preserved, ExoPlayer runs Sonic time-stretching on every buffer
+  static final int MODE_STRETCH = 1;
+
+  static final int BUFFER_FRAMES = 1024;
+
+  /**
+   * Get mode constant of name
+   *
+   * @param mode 'resample' or 'stretch'
+   * @return Mode constant, MODE_STRETCH if name is unknown
+   */
+  public static int parseMode(String mode) {
+    return "resample".equals(mode) ? MODE_RESAMPLE : MODE_STRETCH;
+  }
+
+  /**
+   * Get cache key of variant of file
+   *
+   * @param fileName
+   * @param speed
+   * @param mode
+   * @return Key of PcmCache
+   */
+  public static String cacheKey(String fileName, float speed, int mode) {
+    return fileName + PcmCache.VARIANT_SEPARATOR + (mode == MODE_RESAMPLE ? "resample:" : "stretch:") + speed;
+  }
+
+  /**
+   * Render clip at speed
+   *
+   * @param clip
+   * @param speed
+   * @param mode
+   * @return New clip
+   */
+  public static PcmClip render(PcmClip clip, float speed, int mode) {
+    return mode == MODE_RESAMPLE ? resample(clip, speed) : stretch(clip, speed);
+  }
+
+  /**
+   * Resample clip by linear interpolation, pitch follows speed
+   *
+   * @param clip
+   * @param rate
+   * @return New clip
+   */
+  public static PcmClip resample(PcmClip clip, float rate) {
+    int frameCount = (int) (clip.frameCount / rate);
+    short[] samples = new short[frameCount * 2];
+    short[] source = clip.samples;
+    int lastFrame = clip.frameCount - 1;
+
+    for (int i = 0; i < frameCount; i++) {
+      double position = i * (double) rate;
+      int frame = (int) position;
+      float fraction = (float) (position - frame);
+      int next = Math.min(frame + 1, lastFrame) * 2;
+
+      samples[i * 2] = (short) (source[frame * 2] + (source[next] - source[frame * 2]) * fraction);
+      samples[i * 2 + 1] = (short) (source[frame * 2 + 1] + (source[next + 1] - source[frame * 2 + 1]) * fraction);
+    }
+
+    return new PcmClip(samples, clip.sampleRate, clip.sourceChannelCount);
+  }
+
+  /**
+   * Time-stretch clip with the Sonic processor of ExoPlayer, pitch is preserved
+   *
+   * @param clip
+   * @param speed
+   * @return New clip
+   */
+  public static PcmClip stretch(PcmClip clip, float speed) {
+    SonicAudioProcessor sonic = createSonic(clip.sampleRate, speed, 1);
+    short[] samples = new short[(int) (clip.frameCount / speed + BUFFER_FRAMES) * 2];
+    int outputLength = 0;
+
+    ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_FRAMES * 4).order(ByteOrder.nativeOrder());
+    ShortBuffer inputSamples = input.asShortBuffer();
+
+    for (int offset = 0; offset < clip.samples.length; offset += BUFFER_FRAMES * 2) {
+      int length = Math.min(BUFFER_FRAMES * 2, clip.samples.length - offset);
+
+      inputSamples.clear();
+      inputSamples.put(clip.samples, offset, length);
+      input.clear();
+      input.limit(length * 2);
+
+      sonic.queueInput(input);
+      outputLength = drain(sonic, samples, outputLength);
+    }
+
+    sonic.queueEndOfStream();
+    outputLength = drain(sonic, samples, outputLength);
+    sonic.release();
+
+    short[] trimmed = new short[outputLength - outputLength % 2];
+    System.arraycopy(samples, 0, trimmed, 0, trimmed.length);
+
+    return new PcmClip(trimmed, clip.sampleRate, clip.sourceChannelCount);
+  }
+
+  /**
+   * Create Sonic processor for interleaved 16 bit stereo PCM
+   *
+   * @param sampleRate
+   * @param speed
+   * @param pitch
+   * @return Processor ready for input
+   */
+  static SonicAudioProcessor createSonic(int sampleRate, float speed, float pitch) {
+    SonicAudioProcessor sonic = new SonicAudioProcessor();
+
+    try {
+      sonic.configure(sampleRate, 2, C.ENCODING_PCM_16BIT);
+    }
+    catch (AudioProcessor.UnhandledFormatException e) {
+      throw new IllegalStateException(e);
+    }
+
+    sonic.setSpeed(speed);
+    sonic.setPitch(pitch);
+    sonic.flush();
+
+    return sonic;
+  }
+
+  /**
+   * Append available output of processor to samples
+   *
+   * @param sonic
+   * @param samples
+   * @param length Count of samples already in samples
+   * @return New count of samples
+   */
+  private static int drain(SonicAudioProcessor sonic, short[] samples, int length) {
+    ShortBuffer output = sonic.getOutput().order(ByteOrder.nativeOrder()).asShortBuffer();
+    int count = Math.min(output.remaining(), samples.length - length);
+
+    output.get(samples, length, count);
+
+    return length + count;
+  }
+}
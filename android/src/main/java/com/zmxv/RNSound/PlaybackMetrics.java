@@ -0,0 +1,158 @@
+package com.zmxv.RNSound;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.TransferListener;
+
+/**
+ * Opt-in collector of player lifecycle and latency metrics. All record methods return
+ * immediately while metrics are disabled.
+ */
+public class PlaybackMetrics implements TransferListener<DataSource> {
+  private volatile boolean enabled = false;
+
+  private final LatencyHistogram prepareLatency = new LatencyHistogram();
+  private final LatencyHistogram firstAudioLatency = new LatencyHistogram();
+
+  private long prepares = 0;
+  private long prepareErrors = 0;
+  private long rebuffers = 0;
+  private long bytesLoaded = 0;
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Record time from prepare() to STATE_READY
+   *
+   * @param latencyMs
+   */
+  public void recordPrepare(double latencyMs) {
+    if (!this.enabled) {
+      return;
+    }
+
+    synchronized (this) {
+      this.prepares++;
+    }
+    this.prepareLatency.record(latencyMs);
+  }
+
+  public void recordPrepareError() {
+    if (!this.enabled) {
+      return;
+    }
+
+    synchronized (this) {
+      this.prepareErrors++;
+    }
+  }
+
+  /**
+   * Record time from play() until playback position starts to advance
+   *
+   * @param latencyMs
+   */
+  public void recordFirstAudio(double latencyMs) {
+    if (!this.enabled) {
+      return;
+    }
+
+    this.firstAudioLatency.record(latencyMs);
+  }
+
+  /**
+   * Record transition from STATE_READY to STATE_BUFFERING during playback
+   */
+  public void recordRebuffer() {
+    if (!this.enabled) {
+      return;
+    }
+
+    synchronized (this) {
+      this.rebuffers++;
+    }
+  }
+
+  @Override
+  public void onTransferStart(DataSource source, DataSpec dataSpec) {
+  }
+
+  @Override
+  public void onBytesTransferred(DataSource source, int bytesTransferred) {
+    if (!this.enabled) {
+      return;
+    }
+
+    synchronized (this) {
+      this.bytesLoaded += bytesTransferred;
+    }
+  }
+
+  @Override
+  public void onTransferEnd(DataSource source) {
+  }
+
+  public synchronized void reset() {
+    this.prepareLatency.reset();
+    this.firstAudioLatency.reset();
+    this.prepares = 0;
+    this.prepareErrors = 0;
+    this.rebuffers = 0;
+    this.bytesLoaded = 0;
+  }
+
+  /**
+   * Create map of collected metrics for JavaScript code
+   *
+   * @return Map with counters and latency histograms
+   */
+  public synchronized WritableMap toWritableMap() {
+    WritableMap map = Arguments.createMap();
+    map.putBoolean("enabled", this.enabled);
+    map.putDouble("prepares", this.prepares);
+    map.putDouble("prepareErrors", this.prepareErrors);
+    map.putDouble("rebuffers", this.rebuffers);
+    map.putDouble("bytesLoaded", this.bytesLoaded);
+    map.putMap("prepareLatency", histogramToMap(this.prepareLatency));
+    map.putMap("timeToFirstAudio", histogramToMap(this.firstAudioLatency));
+
+    return map;
+  }
+
+  private static WritableMap histogramToMap(LatencyHistogram histogram) {
+    WritableMap map = Arguments.createMap();
+    map.putDouble("count", histogram.getCount());
+    map.putDouble("average", histogram.getAverageMs());
+    map.putDouble("p50", histogram.getPercentileMs(.5));
+    map.putDouble("p90", histogram.getPercentileMs(.9));
+    map.putDouble("p99", histogram.getPercentileMs(.99));
+    map.putDouble("max", histogram.getMaxMs());
+
+    WritableArray buckets = Arguments.createArray();
+    for (int i = 0; i <= LatencyHistogram.BUCKET_BOUNDS_MS.length; i++) {
+      WritableMap bucket = Arguments.createMap();
+
+      if (i < LatencyHistogram.BUCKET_BOUNDS_MS.length) {
+        bucket.putDouble("le", LatencyHistogram.BUCKET_BOUNDS_MS[i]);
+      }
+      else {
+        bucket.putNull("le");
+      }
+      bucket.putDouble("count", histogram.getBucketCount(i));
+
+      buckets.pushMap(bucket);
+    }
+    map.putArray("buckets", buckets);
+
+    return map;
+  }
+}
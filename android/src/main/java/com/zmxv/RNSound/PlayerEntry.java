@@ -0,0 +1,89 @@
+package com.zmxv.RNSound;
+
+import android.os.SystemClock;
+
+import com.google.android.exoplayer2.PlaybackParameters;
+import com.google.android.exoplayer2.source.MediaSource;
+
+/**
+ * Player of a key together with its event listener and lifecycle state
+ */
+public class PlayerEntry {
+  static final int STATE_PREPARING = 0;
+  static final int STATE_READY = 1;
+  static final int STATE_RELEASED = 2;
+  static final int STATE_SUSPENDED = 3;
+
+  /**
+   * Operation on the ready player of a key, which waits while a suspended player is prepared again
+   */
+  interface Action {
+    /**
+     * @param player Ready player or null, if key has no player or it could not be prepared again
+     */
+    void run(ProcessingExoPlayer player);
+  }
+
+  /**
+   * State of a suspended player, which is restored when it is prepared again
+   */
+  static class Suspension {
+    final MediaSource source;
+    final int itemCount;
+    final BufferProfile bufferProfile;
+
+    PlaybackParameters playbackParameters;
+    int numberOfLoops;
+    int windowIndex;
+    long positionMs;
+    float volume;
+
+    Suspension(MediaSource source, int itemCount, BufferProfile bufferProfile, int numberOfLoops, PlaybackParameters playbackParameters, int windowIndex, long positionMs, float volume) {
+      this.source = source;
+      this.itemCount = itemCount;
+      this.bufferProfile = bufferProfile;
+      this.playbackParameters = playbackParameters;
+      this.numberOfLoops = numberOfLoops;
+      this.windowIndex = windowIndex;
+      this.positionMs = positionMs;
+      this.volume = volume;
+    }
+  }
+
+  final int key;
+  final ProcessingExoPlayer player;
+  final ExoPlayerEventListener eventListener;
+  final Suspension suspension;
+
+  volatile int state = STATE_PREPARING;
+  volatile long lastActiveMs = SystemClock.uptimeMillis();
+
+  public PlayerEntry(int key, ProcessingExoPlayer player, ExoPlayerEventListener eventListener) {
+    this.key = key;
+    this.player = player;
+    this.eventListener = eventListener;
+    this.suspension = null;
+  }
+
+  /**
+   * Create entry of suspended player without player instance
+   *
+   * @param key
+   * @param suspension
+   */
+  public PlayerEntry(int key, Suspension suspension) {
+    this.key = key;
+    this.player = null;
+    this.eventListener = null;
+    this.suspension = suspension;
+    this.state = STATE_SUSPENDED;
+  }
+
+  public boolean isReady() {
+    return this.state == STATE_READY;
+  }
+
+  public boolean isSuspended() {
+    return this.state == STATE_SUSPENDED;
+  }
+}
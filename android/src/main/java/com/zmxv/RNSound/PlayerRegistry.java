@@ -0,0 +1,124 @@
+package com.zmxv.RNSound;
+
+import java.util.Arrays;
+
+/**
+ * Concurrent map of players by primitive int key. Reads are lock-free on an immutable snapshot
+ * of sorted keys, writes copy the snapshot under a lock. Players are prepared and released rarely
+ * compared to lookups of play(), setVolume() and progress events.
+ *
+ * @param <E> Entry type
+ */
+public class PlayerRegistry<E> {
+  private static final int[] EMPTY_KEYS = new int[0];
+  private static final Object[] EMPTY_VALUES = new Object[0];
+
+  private static class Snapshot {
+    final int[] keys;
+    final Object[] values;
+
+    Snapshot(int[] keys, Object[] values) {
+      this.keys = keys;
+      this.values = values;
+    }
+  }
+
+  private volatile Snapshot snapshot = new Snapshot(EMPTY_KEYS, EMPTY_VALUES);
+
+  /**
+   * Get entry of key without locking
+   *
+   * @param key
+   * @return Entry or null
+   */
+  @SuppressWarnings("unchecked")
+  public E get(int key) {
+    Snapshot snapshot = this.snapshot;
+    int index = Arrays.binarySearch(snapshot.keys, key);
+
+    return index >= 0 ? (E) snapshot.values[index] : null;
+  }
+
+  /**
+   * Add or replace entry of key
+   *
+   * @param key
+   * @param entry
+   * @return Replaced entry or null
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized E put(int key, E entry) {
+    Snapshot snapshot = this.snapshot;
+    int index = Arrays.binarySearch(snapshot.keys, key);
+
+    if (index >= 0) {
+      Object[] values = snapshot.values.clone();
+      values[index] = entry;
+      this.snapshot = new Snapshot(snapshot.keys, values);
+
+      return (E) snapshot.values[index];
+    }
+
+    int insert = -index - 1;
+    int size = snapshot.keys.length;
+    int[] keys = new int[size + 1];
+    Object[] values = new Object[size + 1];
+
+    System.arraycopy(snapshot.keys, 0, keys, 0, insert);
+    System.arraycopy(snapshot.values, 0, values, 0, insert);
+    keys[insert] = key;
+    values[insert] = entry;
+    System.arraycopy(snapshot.keys, insert, keys, insert + 1, size - insert);
+    System.arraycopy(snapshot.values, insert, values, insert + 1, size - insert);
+
+    this.snapshot = new Snapshot(keys, values);
+
+    return null;
+  }
+
+  /**
+   * Remove entry of key
+   *
+   * @param key
+   * @return Removed entry or null
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized E remove(int key) {
+    Snapshot snapshot = this.snapshot;
+    int index = Arrays.binarySearch(snapshot.keys, key);
+
+    if (index < 0) {
+      return null;
+    }
+
+    int size = snapshot.keys.length;
+    int[] keys = new int[size - 1];
+    Object[] values = new Object[size - 1];
+
+    System.arraycopy(snapshot.keys, 0, keys, 0, index);
+    System.arraycopy(snapshot.values, 0, values, 0, index);
+    System.arraycopy(snapshot.keys, index + 1, keys, index, size - index - 1);
+    System.arraycopy(snapshot.values, index + 1, values, index, size - index - 1);
+
+    this.snapshot = new Snapshot(keys, values);
+
+    return (E) snapshot.values[index];
+  }
+
+  public int size() {
+    return this.snapshot.keys.length;
+  }
+
+  /**
+   * Get keys of all entries at the time of the call
+   *
+   * @return Sorted keys, must not be modified
+   */
+  public int[] keys() {
+    return this.snapshot.keys;
+  }
+
+  public synchronized void clear() {
+    this.snapshot = new Snapshot(EMPTY_KEYS, EMPTY_VALUES);
+  }
+}
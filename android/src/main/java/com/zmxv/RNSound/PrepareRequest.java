@@ -0,0 +1,76 @@
+package com.zmxv.RNSound;
+
+import com.facebook.react.bridge.Callback;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decode of a file for SoundMixer, which is in flight. Effects of the same file, which are prepared
+ * meanwhile, join it as followers and share its decoded clip or its error. Only used on the audio
+ * thread of RNSoundModule.
+ */
+public class PrepareRequest {
+  /**
+   * Key waiting for the result of the request
+   */
+  static class Follower {
+    final int key;
+    final Callback callback;
+
+    Follower(int key, Callback callback) {
+      this.key = key;
+      this.callback = callback;
+    }
+  }
+
+  final String fileName;
+  final int key;
+
+  // Whether key was released or prepared again before the request completed
+  boolean released = false;
+
+  private final List<Follower> followers = new ArrayList<>();
+
+  /**
+   * Create request led by key
+   *
+   * @param fileName
+   * @param key Key which decodes the file
+   */
+  public PrepareRequest(String fileName, int key) {
+    this.fileName = fileName;
+    this.key = key;
+  }
+
+  /**
+   * Check if an effect prepare can join this request
+   *
+   * @param fileName
+   * @return Whether file is the same
+   */
+  public boolean matches(String fileName) {
+    return this.fileName.equals(fileName);
+  }
+
+  public void addFollower(Follower follower) {
+    this.followers.add(follower);
+  }
+
+  /**
+   * Remove follower of key, on key is released or prepared again before the request completed
+   *
+   * @param key
+   */
+  public void removeFollower(int key) {
+    for (int i = this.followers.size() - 1; i >= 0; i--) {
+      if (this.followers.get(i).key == key) {
+        this.followers.remove(i);
+      }
+    }
+  }
+
+  public List<Follower> getFollowers() {
+    return this.followers;
+  }
+}
@@ -0,0 +1,78 @@
+package com.zmxv.RNSound;
+
+import android.content.Context;
+
+import com.google.android.exoplayer2.SimpleExoPlayer;
+import com.google.android.exoplayer2.audio.AudioProcessor;
+import com.google.android.exoplayer2.trackselection.TrackSelector;
+
+/**
+ * SimpleExoPlayer with the audio processors of RNSound in its audio renderer and the LoadControl
+ * of a BufferProfile
+ */
+public class ProcessingExoPlayer extends SimpleExoPlayer {
+  static final long ALLOWED_VIDEO_JOINING_TIME_MS = 5000;
+
+  // Assigned in buildAudioProcessors(), which is called by constructor of SimpleExoPlayer
+  private GainAudioProcessor gainAudioProcessor;
+  private final ProfileLoadControl loadControl;
+
+  // Whether a seek is running, ExoPlayer reports its position discontinuity while it runs
+  private boolean seeking = false;
+
+  public ProcessingExoPlayer(Context context, TrackSelector trackSelector, ProfileLoadControl loadControl) {
+    super(context, trackSelector, loadControl, null, EXTENSION_RENDERER_MODE_OFF, ALLOWED_VIDEO_JOINING_TIME_MS);
+
+    this.loadControl = loadControl;
+  }
+
+  @Override
+  protected AudioProcessor[] buildAudioProcessors() {
+    this.gainAudioProcessor = new GainAudioProcessor();
+
+    return new AudioProcessor[] { this.gainAudioProcessor };
+  }
+
+  @Override
+  public void seekTo(long positionMs) {
+    this.seeking = true;
+    try {
+      super.seekTo(positionMs);
+    }
+    finally {
+      this.seeking = false;
+    }
+  }
+
+  @Override
+  public void seekTo(int windowIndex, long positionMs) {
+    this.seeking = true;
+    try {
+      super.seekTo(windowIndex, positionMs);
+    }
+    finally {
+      this.seeking = false;
+    }
+  }
+
+  /**
+   * Check if a position discontinuity is caused by a seek rather than by playback
+   *
+   * @return Whether a seek is running
+   */
+  public boolean isSeeking() {
+    return this.seeking;
+  }
+
+  public GainAudioProcessor getGainAudioProcessor() {
+    return this.gainAudioProcessor;
+  }
+
+  public ProfileLoadControl getLoadControl() {
+    return this.loadControl;
+  }
+
+  public BufferProfile getBufferProfile() {
+    return this.loadControl.getProfile();
+  }
+}
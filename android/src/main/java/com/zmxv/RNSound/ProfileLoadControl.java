@@ -0,0 +1,103 @@
+package com.zmxv.RNSound;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.DefaultLoadControl;
+import com.google.android.exoplayer2.LoadControl;
+import com.google.android.exoplayer2.Renderer;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
+import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.upstream.DefaultAllocator;
+
+/**
+ * LoadControl of a BufferProfile. Durations are handled by DefaultLoadControl, the byte limits of the
+ * profile and of the MemoryBudget additionally stop loading and allow playback once they are reached.
+ */
+public class ProfileLoadControl implements LoadControl {
+  private final BufferProfile profile;
+  private final MemoryBudget budget;
+  private final Allocator allocator;
+  private final DefaultLoadControl loadControl;
+
+  private volatile int peakBytesAllocated = 0;
+
+  public ProfileLoadControl(BufferProfile profile, MemoryBudget budget) {
+    DefaultAllocator allocator = new DefaultAllocator(true, C.DEFAULT_BUFFER_SEGMENT_SIZE);
+
+    this.profile = profile;
+    this.budget = budget;
+    this.allocator = budget.createAllocator(profile.shared ? null : allocator);
+    this.loadControl = new DefaultLoadControl(allocator, profile.minBufferMs, profile.maxBufferMs,
+            profile.bufferForPlaybackMs, profile.bufferForPlaybackAfterRebufferMs);
+  }
+
+  public BufferProfile getProfile() {
+    return this.profile;
+  }
+
+  /**
+   * Get bytes currently allocated for buffered media
+   *
+   * @return Bytes
+   */
+  public int getBytesAllocated() {
+    return this.allocator.getTotalBytesAllocated();
+  }
+
+  /**
+   * Get maximum of bytes allocated since creation or last reset
+   *
+   * @return Bytes
+   */
+  public int getPeakBytesAllocated() {
+    return this.peakBytesAllocated;
+  }
+
+  public void resetPeakBytesAllocated() {
+    this.peakBytesAllocated = 0;
+  }
+
+  @Override
+  public void onPrepared() {
+    this.loadControl.onPrepared();
+  }
+
+  @Override
+  public void onTracksSelected(Renderer[] renderers, TrackGroupArray trackGroups, TrackSelectionArray trackSelections) {
+    this.loadControl.onTracksSelected(renderers, trackGroups, trackSelections);
+  }
+
+  @Override
+  public void onStopped() {
+    this.loadControl.onStopped();
+  }
+
+  @Override
+  public void onReleased() {
+    this.loadControl.onReleased();
+  }
+
+  @Override
+  public Allocator getAllocator() {
+    return this.allocator;
+  }
+
+  @Override
+  public boolean shouldStartPlayback(long bufferedDurationUs, boolean rebuffering) {
+    return this.loadControl.shouldStartPlayback(bufferedDurationUs, rebuffering) || this.isByteLimitReached();
+  }
+
+  @Override
+  public boolean shouldContinueLoading(long bufferedDurationUs) {
+    int bytesAllocated = this.allocator.getTotalBytesAllocated();
+    if (bytesAllocated > this.peakBytesAllocated) {
+      this.peakBytesAllocated = bytesAllocated;
+    }
+
+    return !this.isByteLimitReached() && this.loadControl.shouldContinueLoading(bufferedDurationUs);
+  }
+
+  private boolean isByteLimitReached() {
+    return this.budget.isLimitReached(this.allocator.getTotalBytesAllocated(), this.profile.maxBufferBytes);
+  }
+}
@@ -0,0 +1,192 @@
+package com.zmxv.RNSound;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.SparseIntArray;
+
+/**
+ * One shared ticker for progress events of all playing players. Each player has its own interval,
+ * the listener receives all players which are due in a tick at once. Only used on the audio thread
+ * of RNSoundModule, on which its handler runs.
+ */
+public class ProgressTicker implements Runnable {
+  static final int DEFAULT_INTERVAL_MS = 10000;
+
+  /**
+   * Provider of playback positions and receiver of progress of due players
+   */
+  public interface Listener {
+    /**
+     * @param key
+     * @return Playback position in milliseconds or -1, if player is not playing anymore
+     */
+    long getPlaybackPosition(int key);
+
+    /**
+     * @param keys Keys of due players, the array is reused by the next tick
+     * @param positionsInMs Playback positions of due players, the array is reused by the next tick
+     * @param count Count of due players
+     */
+    void onProgress(int[] keys, long[] positionsInMs, int count);
+  }
+
+  private final Handler handler;
+  private final Listener listener;
+
+  // Interval of players, which do not use the default interval
+  private final SparseIntArray intervals = new SparseIntArray();
+
+  // Playing players and their next due time in uptime milliseconds
+  private int[] keys = new int[16];
+  private long[] dueTimes = new long[16];
+  private int count = 0;
+
+  // Players, which are due in a tick, and their positions
+  private int[] dueKeys = new int[16];
+  private long[] duePositions = new long[16];
+
+  public ProgressTicker(Handler handler, Listener listener) {
+    this.handler = handler;
+    this.listener = listener;
+  }
+
+  /**
+   * Set interval of progress events of player
+   *
+   * @param key
+   * @param intervalMs
+   */
+  public void setInterval(int key, int intervalMs) {
+    this.intervals.put(key, Math.max(1, intervalMs));
+
+    int index = this.indexOf(key);
+    if (index >= 0) {
+      this.dueTimes[index] = SystemClock.uptimeMillis();
+      this.schedule();
+    }
+  }
+
+  /**
+   * Start progress events of player, first event is sent immediately
+   *
+   * @param key
+   */
+  public void start(int key) {
+    int index = this.indexOf(key);
+
+    if (index < 0) {
+      if (this.count == this.keys.length) {
+        int[] keys = new int[this.count * 2];
+        long[] dueTimes = new long[this.count * 2];
+        System.arraycopy(this.keys, 0, keys, 0, this.count);
+        System.arraycopy(this.dueTimes, 0, dueTimes, 0, this.count);
+        this.keys = keys;
+        this.dueTimes = dueTimes;
+        this.dueKeys = new int[this.count * 2];
+        this.duePositions = new long[this.count * 2];
+      }
+
+      index = this.count++;
+      this.keys[index] = key;
+    }
+
+    this.dueTimes[index] = SystemClock.uptimeMillis();
+    this.schedule();
+  }
+
+  /**
+   * Stop progress events of player
+   *
+   * @param key
+   */
+  public void stop(int key) {
+    int index = this.indexOf(key);
+
+    if (index >= 0) {
+      this.removeAt(index);
+      this.schedule();
+    }
+  }
+
+  /**
+   * Stop progress events of player and forget its interval
+   *
+   * @param key
+   */
+  public void remove(int key) {
+    this.stop(key);
+    this.intervals.delete(key);
+  }
+
+  public void clear() {
+    this.count = 0;
+    this.intervals.clear();
+    this.handler.removeCallbacks(this);
+  }
+
+  @Override
+  public void run() {
+    long now = SystemClock.uptimeMillis();
+    int dueCount = 0;
+
+    for (int i = this.count - 1; i >= 0; i--) {
+      if (this.dueTimes[i] > now) {
+        continue;
+      }
+
+      int key = this.keys[i];
+      long positionInMs = this.listener.getPlaybackPosition(key);
+
+      // Player is not playing anymore
+      if (positionInMs < 0) {
+        this.removeAt(i);
+        continue;
+      }
+
+      this.dueKeys[dueCount] = key;
+      this.duePositions[dueCount] = positionInMs;
+      dueCount++;
+      this.dueTimes[i] = now + this.intervals.get(key, DEFAULT_INTERVAL_MS);
+    }
+
+    if (dueCount > 0) {
+      this.listener.onProgress(this.dueKeys, this.duePositions, dueCount);
+    }
+
+    this.schedule();
+  }
+
+  /**
+   * Post ticker at next due time of all playing players
+   */
+  private void schedule() {
+    this.handler.removeCallbacks(this);
+
+    if (this.count == 0) {
+      return;
+    }
+
+    long nextDueTime = Long.MAX_VALUE;
+    for (int i = 0; i < this.count; i++) {
+      nextDueTime = Math.min(nextDueTime, this.dueTimes[i]);
+    }
+
+    this.handler.postAtTime(this, nextDueTime);
+  }
+
+  private int indexOf(int key) {
+    for (int i = 0; i < this.count; i++) {
+      if (this.keys[i] == key) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  private void removeAt(int index) {
+    this.count--;
+    this.keys[index] = this.keys[this.count];
+    this.dueTimes[index] = this.dueTimes[this.count];
+  }
+}
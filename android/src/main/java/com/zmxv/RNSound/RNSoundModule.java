@@ -3,48 +3,138 @@ package com.zmxv.RNSound;
 import android.content.Context;
 import android.net.Uri;
 import android.media.AudioManager;
+import android.media.AudioTrack;
+import android.os.Build;
 import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
 import android.support.annotation.Nullable;
+import android.util.Base64;
 import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
 
 import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Callback;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
 
 import com.facebook.react.modules.core.DeviceEventManagerModule;
-import com.google.android.exoplayer2.ExoPlayerFactory;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.ExoPlayer;
 import com.google.android.exoplayer2.PlaybackParameters;
-import com.google.android.exoplayer2.SimpleExoPlayer;
 import com.google.android.exoplayer2.extractor.DefaultExtractorsFactory;
 import com.google.android.exoplayer2.extractor.ExtractorsFactory;
+import com.google.android.exoplayer2.source.ConcatenatingMediaSource;
 import com.google.android.exoplayer2.source.ExtractorMediaSource;
 import com.google.android.exoplayer2.source.MediaSource;
-import com.google.android.exoplayer2.trackselection.*;
 import com.google.android.exoplayer2.upstream.*;
 import com.google.android.exoplayer2.util.Util;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Map;
+import java.util.HashSet;
 import java.util.List;
-import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-public class RNSoundModule extends ReactContextBaseJavaModule implements AudioManager.OnAudioFocusChangeListener {
+public class RNSoundModule extends ReactContextBaseJavaModule implements AudioManager.OnAudioFocusChangeListener, SoundMixer.Listener, ProgressTicker.Listener, EventDispatcher.Emitter {
   ReactApplicationContext context;
   final static Object NULL = null;
 
-  Map<Integer, SimpleExoPlayer> playerPool = new HashMap<>();
-  Map<Integer, ExoPlayerEventListener> playerEventListenerPool = new HashMap<>();
+  // Players, their listeners and the pool of idle players are owned by this thread. Bridge methods
+  // post their work to it, ExoPlayer sends its events on its looper and SoundMixer callbacks are
+  // posted to it. Only getHostTime, preload and the system volume methods, which touch no state of
+  // players, run on the bridge thread.
+  final HandlerThread audioThread = startAudioThread();
+  final Handler audioHandler = new Handler(this.audioThread.getLooper());
+
+  PlayerRegistry<PlayerEntry> playerRegistry = new PlayerRegistry<>();
+  ExoPlayerPool exoPlayerPool;
+  MemoryBudget memoryBudget = new MemoryBudget();
+
+  // Audio taps by key, only used on audio thread
+  SparseArray<AudioTap> audioTaps = new SparseArray<>();
+
+  // File names of effects by key, only used on audio thread
+  SparseArray<String> effectFileNames = new SparseArray<>();
+
+  // Effect decodes in flight, which later effects of the same file join, only used on audio thread
+  List<PrepareRequest> prepareRequests = new ArrayList<>();
+  long coalescedPrepares = 0;
+
+  // Players, which have not played for idleTimeoutMs or exceed maxWarmPlayers, are suspended: their
+  // player instance goes back into the pool, key and position are kept until the next play()
+  static final long DEFAULT_IDLE_TIMEOUT_MS = 5 * 60 * 1000;
+  static final int DEFAULT_MAX_WARM_PLAYERS = 32;
+
+  long idleTimeoutMs = DEFAULT_IDLE_TIMEOUT_MS;
+  int maxWarmPlayers = DEFAULT_MAX_WARM_PLAYERS;
+  long suspensions = 0;
+  long rehydrations = 0;
+
+  // Operations waiting for players, which are prepared again after suspension, by key
+  SparseArray<List<PlayerEntry.Action>> pendingPlayerActions = new SparseArray<>();
+  final Runnable idleCheck = new Runnable() {
+    @Override
+    public void run() {
+      suspendIdlePlayers();
+    }
+  };
+
+  volatile SoundMixer soundMixer;
+  ExecutorService decodeExecutor = Executors.newSingleThreadExecutor();
+  PcmCache pcmCache = new PcmCache();
+  ScheduledStarts scheduledStarts = new ScheduledStarts();
+
+  LatencyStats exoPlayerLatencyStats = new LatencyStats();
+  PlaybackMetrics playbackMetrics = new PlaybackMetrics();
+  ProgressTicker progressTicker = new ProgressTicker(this.audioHandler, this);
+  EventDispatcher eventDispatcher = new EventDispatcher(this);
+
+  // Banks of preloaded sounds by id, only used on audio thread
+  Map<String, SoundBank> soundBanks = new HashMap<>();
+
+  // Generation of latest prepare of each key, so a bank only releases keys it still loads
+  SparseIntArray loadGenerations = new SparseIntArray();
+  int loadGeneration = 0;
+
+  RemoteAudioCache remoteAudioCache;
+  boolean remoteCacheEnabled = true;
+  long remoteCacheMaxBytes = RemoteAudioCache.DEFAULT_MAX_BYTES;
+  boolean remoteCachePersistent = true;
 
   String category;
   Boolean mixWithOthers = true;
 
+  // Audio focus of players with mixWithOthers false, only used on audio thread. The focused player
+  // ducks or pauses the other players of the app until it stops.
+  static final String FOCUS_POLICY_DUCK = "duck";
+  static final String FOCUS_POLICY_PAUSE = "pause";
+  static final String FOCUS_POLICY_MIX = "mix";
+
+  String focusPolicy = FOCUS_POLICY_DUCK;
+  float duckVolume = .2f;
+  boolean duckOnTransientLoss = true;
+
+  boolean hasAudioFocus = false;
   Integer focusedPlayerKey;
-  boolean wasPlayingBeforeFocusChange;
+  boolean systemDucked = false;
+  Set<Integer> focusDuckedKeys = new HashSet<>();
+  Set<Integer> focusPausedKeys = new HashSet<>();
+  Set<Integer> transientPausedKeys = new HashSet<>();
 
   /**
    * Create RNSoundModule instance without settings
@@ -56,6 +146,10 @@ public class RNSoundModule extends ReactContextBaseJavaModule implements AudioMa
 
     this.context = context;
     this.category = null;
+    this.exoPlayerPool = new ExoPlayerPool(context, this.memoryBudget);
+
+    // Trim cache of decoded effects on low memory signals of system
+    context.registerComponentCallbacks(this.pcmCache);
   }
 
   @Override
@@ -63,6 +157,59 @@ public class RNSoundModule extends ReactContextBaseJavaModule implements AudioMa
     return "RNSound";
   }
 
+  /**
+   * Start shared looper thread for creation, preparation and control of all players
+   *
+   * @return Started thread
+   */
+  private static HandlerThread startAudioThread() {
+    HandlerThread thread = new HandlerThread("RNSound-audio", Process.THREAD_PRIORITY_AUDIO);
+    thread.start();
+
+    return thread;
+  }
+
+  @Override
+  public void onCatalystInstanceDestroy() {
+    // Release active and idle players on their thread and stop it
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        for (int key : playerRegistry.keys()) {
+          PlayerEntry entry = playerRegistry.get(key);
+          entry.state = PlayerEntry.STATE_RELEASED;
+
+          if (entry.player != null) {
+            entry.player.release();
+          }
+        }
+
+        audioHandler.removeCallbacks(idleCheck);
+        playerRegistry.clear();
+        soundBanks.clear();
+        loadGenerations.clear();
+        audioTaps.clear();
+        effectFileNames.clear();
+        prepareRequests.clear();
+        pendingPlayerActions.clear();
+        exoPlayerPool.clear();
+        progressTicker.clear();
+
+        audioThread.quit();
+      }
+    });
+
+    this.eventDispatcher.clear();
+
+    // Stop mixer of effects
+    this.context.unregisterComponentCallbacks(this.pcmCache);
+    this.pcmCache.trimToSize(0);
+    this.decodeExecutor.shutdownNow();
+    if (this.soundMixer != null) {
+      this.soundMixer.release();
+    }
+  }
+
   @Override
   public Map<String, Object> getConstants() {
     final Map<String, Object> constants = new HashMap<>();
@@ -82,17 +229,181 @@ public class RNSoundModule extends ReactContextBaseJavaModule implements AudioMa
    */
   @ReactMethod
   public void prepare(final String fileName, final Integer key, final ReadableMap options, final Callback callback) {
-    final SimpleExoPlayer player = createMediaPlayer(fileName);
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        prepareOnAudioThread(fileName, key, options, callback);
+      }
+    });
+  }
 
-    // Check if the player was created
-    if (player == null) {
+  void prepareOnAudioThread(final String fileName, final Integer key, final ReadableMap options, final Callback callback) {
+    this.loadGenerations.put(key, ++this.loadGeneration);
+
+    // Decode short sound effects for low latency playback via SoundMixer
+    if (options != null && options.hasKey("effect") && options.getBoolean("effect")) {
+      this.prepareEffect(fileName, key, callback);
+
+      return;
+    }
+
+    this.preparePlayerOfFile(fileName, key, options, callback);
+  }
+
+  /**
+   * Prepare player of a single file
+   *
+   * @param fileName
+   * @param key
+   * @param options
+   * @param callback
+   */
+  private void preparePlayerOfFile(final String fileName, final Integer key, final ReadableMap options, final Callback callback) {
+    final MediaSource source = createMediaSource(fileName);
+
+    // Check if the media source was created
+    if (source == null) {
       WritableMap e = Arguments.createMap();
       e.putInt("code", -1);
       e.putString("message", "resource not found");
 
+      callback.invoke(e, NULL);
+
+      return;
+    }
+
+    this.preparePlayer(source, 1, BufferProfile.fromOptions(options), 0, key, callback);
+  }
+
+  /**
+   * Get effect decode of file, which is in flight
+   *
+   * @param fileName
+   * @return Request or null
+   */
+  private PrepareRequest findPrepareRequest(final String fileName) {
+    for (PrepareRequest request : this.prepareRequests) {
+      if (request.matches(fileName)) {
+        return request;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Drop key from effect decodes in flight, which it follows or leads, so no voice is created for
+   * it once they complete. Followers of a released leader still get the decoded clip.
+   *
+   * @param key
+   */
+  private void cancelPrepare(final int key) {
+    for (PrepareRequest request : this.prepareRequests) {
+      if (request.key == key) {
+        request.released = true;
+      }
+      request.removeFollower(key);
+    }
+  }
+
+  /**
+   * Prepare one player for gapless playback of several files back to back. The next file is
+   * buffered while the current one plays, item transitions are sent as RNSound-queue-item event.
+   *
+   * @param fileNames
+   * @param key React Native key for this player instance
+   * @param options
+   * @param callback
+   */
+  @ReactMethod
+  public void prepareQueue(final ReadableArray fileNames, final Integer key, final ReadableMap options, final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        prepareQueueOnAudioThread(fileNames, key, options, callback);
+      }
+    });
+  }
+
+  void prepareQueueOnAudioThread(final ReadableArray fileNames, final Integer key, final ReadableMap options, final Callback callback) {
+    this.loadGenerations.put(key, ++this.loadGeneration);
+
+    MediaSource[] sources = new MediaSource[fileNames.size()];
+
+    for (int i = 0; i < sources.length; i++) {
+      sources[i] = createMediaSource(fileNames.getString(i));
+
+      // Check if the media source was created
+      if (sources[i] == null) {
+        WritableMap e = Arguments.createMap();
+        e.putInt("code", -1);
+        e.putString("message", String.format("resource not found: %s", fileNames.getString(i)));
+
+        callback.invoke(e, NULL);
+
+        return;
+      }
+    }
+
+    this.preparePlayer(new ConcatenatingMediaSource(sources), sources.length, BufferProfile.fromOptions(options), 0, key, callback);
+  }
+
+  /**
+   * Skip to item of queue
+   *
+   * @param key
+   * @param index Index of item in queue
+   */
+  @ReactMethod
+  public void skipToQueueItem(final Integer key, final Integer index) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        skipToQueueItemOnAudioThread(key, index);
+      }
+    });
+  }
+
+  void skipToQueueItemOnAudioThread(final Integer key, final Integer index) {
+    // Keep item of suspended player until it is prepared again
+    PlayerEntry entry = this.playerRegistry.get(key);
+    if (entry != null && entry.isSuspended()) {
+      if (index >= 0 && index < entry.suspension.itemCount) {
+        entry.suspension.windowIndex = index;
+        entry.suspension.positionMs = 0;
+      }
+
+      return;
+    }
+
+    // Get player from registry
+    ProcessingExoPlayer player = this.getReadyPlayer(key);
+
+    if (player == null || index < 0 || index >= player.getCurrentTimeline().getWindowCount()) {
       return;
     }
 
+    player.seekTo(index, 0);
+  }
+
+  /**
+   * Set category of playback, event listener and media source to a player of pool
+   *
+   * @param source
+   * @param itemCount Count of items in queue of source
+   * @param bufferProfile
+   * @param numberOfLoops Count of repetitions after first playback, negative for infinite looping
+   * @param key
+   * @param callback
+   */
+  private void preparePlayer(final MediaSource source, final int itemCount, final BufferProfile bufferProfile, final int numberOfLoops, final Integer key, final Callback callback) {
+    // Release previous player of key
+    this.releaseOnAudioThread(key);
+
+    // Reuse idle player of profile from pool or create a new one
+    final ProcessingExoPlayer player = this.exoPlayerPool.acquire(bufferProfile);
+    player.getGainAudioProcessor().setTap(this.audioTaps.get(key));
+
     final RNSoundModule module = this;
 
     // Set category of playback in AudioManager
@@ -120,412 +431,2708 @@ public class RNSoundModule extends ReactContextBaseJavaModule implements AudioMa
     }
 
     // Set event listener to player
-    ExoPlayerEventListener eventListener = new ExoPlayerEventListener(module, key, player, callback);
-    this.playerEventListenerPool.put(key, eventListener);
+    ExoPlayerEventListener eventListener = new ExoPlayerEventListener(module, key, player, source, itemCount, numberOfLoops, callback);
+    this.playerRegistry.put(key, new PlayerEntry(key, player, eventListener));
 
     player.addListener(eventListener);
 
-    // Set update progress handler
-    this.updateProgress(key, new Handler());
+    // Set source to audio player, looping is set up before the first preparation
+    player.prepare(ExoPlayerEventListener.createLoopingSource(source, numberOfLoops));
   }
 
   /**
-   * Create new ExoPlayer instance with local or remote HTTP file
+   * Decode local file on background thread, if it is not cached yet, and register it as voice of SoundMixer
    *
    * @param fileName
-   * @return Player instance
+   * @param key
+   * @param callback
    */
-  protected SimpleExoPlayer createMediaPlayer(final String fileName) {
-    // Create a default TrackSelector
-    Handler mainHandler = new Handler();
-    BandwidthMeter bandwidthMeter = new DefaultBandwidthMeter();
-    TrackSelection.Factory trackSelectionFactory = new AdaptiveTrackSelection.Factory(bandwidthMeter);
+  private void prepareEffect(final String fileName, final Integer key, final Callback callback) {
+    if (!new File(fileName).exists()) {
+      WritableMap e = Arguments.createMap();
+      e.putInt("code", -1);
+      e.putString("message", "resource not found");
 
-    TrackSelector trackSelector = new DefaultTrackSelector(trackSelectionFactory);
+      callback.invoke(e, NULL);
 
-    // Create player
-    SimpleExoPlayer player = ExoPlayerFactory.newSimpleInstance(this.context, trackSelector);
+      return;
+    }
 
-    // Load media depending on type of input
-    DataSource.Factory dataSourceFactory = new DefaultDataSourceFactory(this.context, Util.getUserAgent(this.context, "Audioplayer"), null);
-    ExtractorsFactory extractorsFactory = new DefaultExtractorsFactory();
-    MediaSource source = null;
+    // Release previous player or effect of key, also if it is still decoding
+    this.releaseOnAudioThread(key);
 
-    // Load media: HTTP URL
-    if (fileName.startsWith("http://") || fileName.startsWith("https://")) {
-      Uri uri = Uri.parse(fileName);
-      source = new ExtractorMediaSource(uri, dataSourceFactory, extractorsFactory, null, null);
-    }
+    // Join decode of the same file in flight, which shares the decoded clip
+    PrepareRequest pending = this.findPrepareRequest(fileName);
+    if (pending != null) {
+      pending.addFollower(new PrepareRequest.Follower(key, callback));
+      this.coalescedPrepares++;
 
-    // Load media: File
-    File file = new File(fileName);
-    if (file.exists()) {
-      Uri uri = Uri.fromFile(file);
-      source = new ExtractorMediaSource(uri, dataSourceFactory, extractorsFactory, null, null);
+      return;
     }
 
-    // Set source to audio player
-    if (source != null) {
-      player.prepare(source);
+    final PrepareRequest request = new PrepareRequest(fileName, key);
+    final SoundMixer mixer = this.getSoundMixer();
+    this.prepareRequests.add(request);
 
-      return player;
-    }
-    else {
-      return null;
-    }
-  }
+    this.decodeExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        PcmClip clip = null;
+        IOException decodeError = null;
 
-  /**
-   * Remove all player except of one player by key
-   *
-   * @param exceptOfKey
-   */
-  private void releaseAllPlayers(Integer exceptOfKey) {
-    if (this.playerPool.size() > 1) {
-      List<Integer> playersToRelease = new ArrayList<Integer>();
+        try {
+          clip = loadClip(fileName, mixer, true);
+        }
+        catch (IOException error) {
+          decodeError = error;
+        }
 
-      // Get keys of all players to release
-      for (Map.Entry<Integer, SimpleExoPlayer> entry : this.playerPool.entrySet()) {
-          if (entry.getKey() != exceptOfKey) {
-            playersToRelease.add(entry.getKey());
+        final PcmClip decodedClip = clip;
+        final IOException error = decodeError;
+
+        // Register voices of the keys of request, which are still live, on audio thread
+        audioHandler.post(new Runnable() {
+          @Override
+          public void run() {
+            prepareRequests.remove(request);
+
+            if (!request.released) {
+              addEffect(key, fileName, mixer, decodedClip, error, callback);
+            }
+            for (PrepareRequest.Follower follower : request.getFollowers()) {
+              addEffect(follower.key, fileName, mixer, decodedClip, error, follower.callback);
+            }
           }
+        });
       }
-
-      // Release player and remove from pools
-      for (Integer key : playersToRelease) {
-        this.release(key);
-      }
-    }
+    });
   }
 
   /**
-   * Player play audio
+   * Register decoded clip as voice of key in SoundMixer and invoke prepare callback. A file too
+   * long to be decoded into memory is prepared as player instead.
    *
    * @param key
+   * @param fileName
+   * @param mixer
+   * @param clip Decoded clip or null, if decoding failed
+   * @param error Error of decoding or null
    * @param callback
    */
-  @ReactMethod
-  public void play(final Integer key, final Callback callback) {
-    // Get player from pool
-    SimpleExoPlayer player = this.playerPool.get(key);
+  private void addEffect(final int key, final String fileName, final SoundMixer mixer, final PcmClip clip, final IOException error, final Callback callback) {
+    if (error instanceof PcmDecoder.TooLargeException) {
+      Log.w("RNSoundModule", String.format("%s is too long for an effect, preparing it as player", fileName));
+      this.preparePlayerOfFile(fileName, key, null, callback);
 
-    if (player == null) {
-      if (callback != null) {
-        callback.invoke(false);
-      }
-      
       return;
     }
 
-    // Is player already playing
-    if (player.getPlayWhenReady()) {
+    if (clip == null) {
+      WritableMap e = Arguments.createMap();
+      e.putInt("code", -1);
+      e.putString("message", error.getMessage());
+
+      callback.invoke(e, NULL);
+
       return;
     }
 
+    mixer.addVoice(key, clip);
+    this.effectFileNames.put(key, fileName);
 
-    // Request audio focus in Android system (playback without any other audio playbacks on system)
-    if (!this.mixWithOthers) {
-      AudioManager audioManager = (AudioManager) this.context.getSystemService(Context.AUDIO_SERVICE);
-      audioManager.requestAudioFocus(this, AudioManager.STREAM_MUSIC, AudioManager.AUDIOFOCUS_GAIN);
+    // Attach tap, which was set before effect was prepared
+    AudioTap tap = this.audioTaps.get(key);
+    if (tap != null) {
+      mixer.setTap(key, tap);
+    }
 
-      this.focusedPlayerKey = key;
+    WritableMap props = Arguments.createMap();
+    props.putDouble("duration", clip.getDurationMs() * .001);
+    props.putInt("numberOfChannels", clip.sourceChannelCount);
 
-      // Release all players, except of this one
-      this.releaseAllPlayers(key);
-    }
+    callback.invoke(NULL, props);
+  }
 
-    // Set player to playing
-    player.setPlayWhenReady(true);
+  /**
+   * Get decoded clip of file from cache or decode and cache it
+   *
+   * @param fileName
+   * @param mixer
+   * @param countLookup Whether the lookup counts in hit statistics of cache
+   * @return Decoded clip
+   * @throws IOException If file could not be decoded or is too long to be decoded into memory
+   */
+  private PcmClip loadClip(final String fileName, final SoundMixer mixer, final boolean countLookup) throws IOException {
+    PcmClip clip = countLookup ? this.pcmCache.get(fileName) : this.pcmCache.peek(fileName);
 
-    if (callback != null) {
-      callback.invoke(true);
+    if (clip == null) {
+      clip = PcmDecoder.decode(fileName, mixer.getSampleRate(), PcmDecoder.DEFAULT_MAX_BYTES);
+      this.pcmCache.put(fileName, clip);
     }
 
-    // Set update progress handler
-    this.updateProgress(key, new Handler());
-
-    // Send event to event emitter
-    WritableMap data = Arguments.createMap();
-    data.putBoolean("isPlaying", true);
-    Long positionInMs = player.getCurrentPosition();
-    data.putDouble("currentTime", Math.floor(positionInMs * .001));
-    this.sendEvent("RNSound-playing", key, data);
+    return clip;
   }
 
   /**
-   * Player pause audio
+   * Prepare all sounds of a manifest with bounded concurrency, sounds of higher priority first.
+   * Progress of the bank is sent as RNSound-bank-progress event after each prepared sound.
    *
-   * @param key
-   * @param callback
+   * @param bankId
+   * @param sounds Array of fileName, key, optional options and optional priority
+   * @param options concurrency (maximum count of sounds prepared at the same time)
+   * @param callback Receives array of results with key, success and error or props in order of manifest
    */
   @ReactMethod
-  public void pause(final Integer key, final Callback callback) {
-    // Get player from pool
-    SimpleExoPlayer player = this.playerPool.get(key);
-
-    if (player == null) {
-      if (callback != null) {
-        callback.invoke(false);
+  public void preloadBank(final String bankId, final ReadableArray sounds, final ReadableMap options, final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        preloadBankOnAudioThread(bankId, sounds, options, callback);
       }
+    });
+  }
 
-      return;
-    }
+  void preloadBankOnAudioThread(final String bankId, final ReadableArray sounds, final ReadableMap options, final Callback callback) {
+    // Replace previous bank of id
+    this.unloadBankOnAudioThread(bankId);
 
-    // Set player to pause
-    player.setPlayWhenReady(false);
+    int concurrency = options != null && options.hasKey("concurrency") ? options.getInt("concurrency") : SoundBank.DEFAULT_CONCURRENCY;
+    SoundBank bank = new SoundBank(bankId, sounds, concurrency, callback);
+    this.soundBanks.put(bankId, bank);
 
-    if (callback != null) {
-      callback.invoke(true);
+    if (bank.isDone()) {
+      this.completeBank(bank);
+
+      return;
     }
 
-    // Send event to event emitter
-    WritableMap data = Arguments.createMap();
-    data.putBoolean("isPlaying", false);
-    Long positionInMs = player.getCurrentPosition();
-    data.putDouble("currentTime", Math.floor(positionInMs * .001));
-    this.sendEvent("RNSound-playing", key, data);
+    this.prepareNextBankItems(bank);
   }
 
   /**
-   * Player stop audio
-   * @param key
-   * @param callback
+   * Start preparation of items of bank until its concurrency is reached
+   *
+   * @param bank
    */
-  @ReactMethod
-  public void stop(final Integer key, final Callback callback) {
-    // Get player from pool
-    SimpleExoPlayer player = this.playerPool.get(key);
+  private void prepareNextBankItems(final SoundBank bank) {
+    SoundBank.Item item;
+
+    while ((item = bank.next()) != null) {
+      final SoundBank.Item preparedItem = item;
+
+      this.prepareOnAudioThread(item.fileName, item.key, item.options, new Callback() {
+        @Override
+        public void invoke(final Object... args) {
+          // Continue with bank after prepares completing together with this one invoked their callbacks
+          audioHandler.post(new Runnable() {
+            @Override
+            public void run() {
+              onBankItemPrepared(bank, preparedItem, args);
+            }
+          });
+        }
+      });
 
-    if (player == null) {
-      if (callback != null) {
-        callback.invoke(false);
+      preparedItem.generation = this.loadGenerations.get(item.key);
+    }
+  }
+
+  private void onBankItemPrepared(final SoundBank bank, final SoundBank.Item item, final Object... args) {
+    // Release sounds which finished preparation after their bank was unloaded, unless their key was
+    // prepared again meanwhile
+    if (bank.isUnloaded()) {
+      if (this.loadGenerations.get(item.key) == item.generation) {
+        this.releaseOnAudioThread(item.key);
       }
 
       return;
     }
 
-    // Pause player, if it is playing
-    if (player.getPlayWhenReady()) {
-      player.setPlayWhenReady(false);
-    }
+    bank.complete(item, BatchResult.resultOf(item.key, args));
 
-    // Seek to begin of playback time
-    player.seekTo(0);
-    
-    // Release audio focus in Android system
-    if (!this.mixWithOthers && key == this.focusedPlayerKey) {
-      AudioManager audioManager = (AudioManager) this.context.getSystemService(Context.AUDIO_SERVICE);
-      audioManager.abandonAudioFocus(this);
-    }
+    // Send progress event of bank
+    WritableMap data = Arguments.createMap();
+    data.putString("bankId", bank.id);
+    data.putInt("loaded", bank.getLoaded());
+    data.putInt("failed", bank.getFailed());
+    data.putInt("total", bank.getTotal());
+    this.sendEvent("RNSound-bank-progress", item.key, data);
 
-    if (callback != null) {
-      callback.invoke(true);
+    if (bank.isDone()) {
+      this.completeBank(bank);
+
+      return;
     }
 
-    // Send event to event emitter
-    WritableMap data = Arguments.createMap();
-    data.putBoolean("isPlaying", false);
-    Long positionInMs = player.getCurrentPosition();
-    data.putDouble("currentTime", Math.floor(positionInMs * .001));
-    this.sendEvent("RNSound-playing", key, data);
+    this.prepareNextBankItems(bank);
+  }
+
+  private void completeBank(final SoundBank bank) {
+    bank.callback.invoke(NULL, bank.getResults());
   }
 
   /**
-   * Release ExoPlayer instance by player key
+   * Release all sounds of bank and stop preparation of its remaining sounds
    *
-   * @param key
+   * @param bankId
    */
   @ReactMethod
-  public void release(final Integer key) {
-    // Get player from pool
-    SimpleExoPlayer player = this.playerPool.get(key);
+  public void unloadBank(final String bankId) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        unloadBankOnAudioThread(bankId);
+      }
+    });
+  }
+
+  void unloadBankOnAudioThread(final String bankId) {
+    SoundBank bank = this.soundBanks.remove(bankId);
+
+    if (bank == null) {
+      return;
+    }
+
+    boolean wasDone = bank.isDone();
+
+    for (int key : bank.unload()) {
+      this.releaseOnAudioThread(key);
+    }
+
+    // Callback of bank is invoked once, also if it is unloaded during preparation
+    if (!wasDone) {
+      WritableMap e = Arguments.createMap();
+      e.putInt("code", -1);
+      e.putString("message", "bank unloaded");
+
+      bank.callback.invoke(e, NULL);
+    }
+  }
+
+  /**
+   * Decode file into cache of effects without creating a voice
+   *
+   * @param fileName
+   * @param callback
+   */
+  @ReactMethod
+  public void preload(final String fileName, final Callback callback) {
+    if (!new File(fileName).exists()) {
+      WritableMap e = Arguments.createMap();
+      e.putInt("code", -1);
+      e.putString("message", "resource not found");
+
+      callback.invoke(e, NULL);
+
+      return;
+    }
+
+    final SoundMixer mixer = this.getSoundMixer();
+
+    this.decodeExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          PcmClip clip = loadClip(fileName, mixer, true);
+
+          WritableMap props = Arguments.createMap();
+          props.putDouble("duration", clip.getDurationMs() * .001);
+          props.putInt("numberOfChannels", clip.sourceChannelCount);
+
+          callback.invoke(NULL, props);
+        }
+        catch (IOException error) {
+          WritableMap e = Arguments.createMap();
+          e.putInt("code", -1);
+          e.putString("message", error.getMessage());
+
+          callback.invoke(e, NULL);
+        }
+      }
+    });
+  }
+
+  /**
+   * Remove decoded file and its pre-rendered speed variants from cache of effects, prepared effects of
+   * this file keep working
+   *
+   * @param fileName
+   */
+  @ReactMethod
+  public void evict(final String fileName) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        evictOnAudioThread(fileName);
+      }
+    });
+  }
+
+  void evictOnAudioThread(final String fileName) {
+    this.pcmCache.evict(fileName);
+  }
+
+  /**
+   * Set memory budget of cache of decoded effects
+   *
+   * @param bytes
+   */
+  @ReactMethod
+  public void setPcmCacheSize(final Double bytes) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setPcmCacheSizeOnAudioThread(bytes);
+      }
+    });
+  }
+
+  void setPcmCacheSizeOnAudioThread(final Double bytes) {
+    this.pcmCache.setMaxBytes(bytes.longValue());
+  }
+
+  /**
+   * Get size and hit statistics of cache of decoded effects
+   *
+   * @param callback
+   */
+  @ReactMethod
+  public void getPcmCacheStats(final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        getPcmCacheStatsOnAudioThread(callback);
+      }
+    });
+  }
+
+  void getPcmCacheStatsOnAudioThread(final Callback callback) {
+    WritableMap stats = Arguments.createMap();
+    stats.putInt("count", this.pcmCache.getCount());
+    stats.putDouble("size", this.pcmCache.getSizeInBytes());
+    stats.putDouble("maxSize", this.pcmCache.getMaxBytes());
+    stats.putDouble("hits", this.pcmCache.getHits());
+    stats.putDouble("misses", this.pcmCache.getMisses());
+    stats.putDouble("evictions", this.pcmCache.getEvictions());
+
+    callback.invoke(stats);
+  }
+
+  /**
+   * Get SoundMixer for effects, create it with output settings of device on first use
+   *
+   * @return Mixer instance
+   */
+  synchronized SoundMixer getSoundMixer() {
+    if (this.soundMixer == null) {
+      int sampleRate = AudioTrack.getNativeOutputSampleRate(AudioManager.STREAM_MUSIC);
+      int framesPerBuffer = SoundMixer.DEFAULT_FRAMES_PER_BUFFER;
+
+      // Use native buffer size of device to reach its low latency output path
+      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+        AudioManager audioManager = (AudioManager) this.context.getSystemService(Context.AUDIO_SERVICE);
+        String nativeSampleRate = audioManager.getProperty(AudioManager.PROPERTY_OUTPUT_SAMPLE_RATE);
+        String nativeFramesPerBuffer = audioManager.getProperty(AudioManager.PROPERTY_OUTPUT_FRAMES_PER_BUFFER);
+
+        if (nativeSampleRate != null) {
+          sampleRate = Integer.parseInt(nativeSampleRate);
+        }
+        if (nativeFramesPerBuffer != null) {
+          framesPerBuffer = Integer.parseInt(nativeFramesPerBuffer);
+        }
+      }
+
+      this.soundMixer = new SoundMixer(sampleRate, framesPerBuffer, this);
+    }
+
+    return this.soundMixer;
+  }
+
+  /**
+   * Check if key belongs to an effect of SoundMixer
+   *
+   * @param key
+   * @return
+   */
+  private boolean isEffect(final Integer key) {
+    return this.soundMixer != null && this.soundMixer.hasVoice(key);
+  }
+
+  /**
+   * On effect playback ends via SoundMixer.Listener send isPlaying false event from the audio thread
+   *
+   * @param key
+   * @param positionMs
+   */
+  @Override
+  public void onVoiceEnded(final int key, final long positionMs) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        sendPlayingEvent(key, false, positionMs);
+      }
+    });
+  }
+
+  /**
+   * On scheduled start of effect via SoundMixer.Listener report start time and send isPlaying true event
+   * from the audio thread
+   *
+   * @param key
+   * @param scheduledNanos
+   * @param startNanos
+   */
+  @Override
+  public void onVoiceStarted(final int key, final long scheduledNanos, final long startNanos) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        scheduledStarts.started(key, scheduledNanos, startNanos);
+        progressTicker.start(key);
+        sendPlayingEvent(key, true, 0);
+      }
+    });
+  }
+
+  /**
+   * Create media source with local or remote HTTP file
+   *
+   * @param fileName
+   * @return Media source or null, if file was not found
+   */
+  protected MediaSource createMediaSource(final String fileName) {
+    // Load media depending on type of input
+    DataSource.Factory dataSourceFactory = new DefaultDataSourceFactory(this.context, Util.getUserAgent(this.context, "Audioplayer"), this.playbackMetrics);
+    ExtractorsFactory extractorsFactory = new DefaultExtractorsFactory();
+    MediaSource source = null;
+
+    // Load media: HTTP URL, through disk cache if enabled
+    if (fileName.startsWith("http://") || fileName.startsWith("https://")) {
+      Uri uri = Uri.parse(fileName);
+      RemoteAudioCache remoteAudioCache = this.getRemoteAudioCache();
+
+      if (remoteAudioCache != null) {
+        remoteAudioCache.recordRequest(uri);
+        source = new ExtractorMediaSource(uri, remoteAudioCache.createDataSourceFactory(dataSourceFactory), extractorsFactory, null, null);
+      }
+      else {
+        source = new ExtractorMediaSource(uri, dataSourceFactory, extractorsFactory, null, null);
+      }
+    }
+
+    // Load media: File, read from memory mapped windows of file
+    File file = new File(fileName);
+    if (file.exists()) {
+      Uri uri = Uri.fromFile(file);
+      source = new ExtractorMediaSource(uri, new MappedFileDataSource.Factory(this.playbackMetrics), extractorsFactory, null, null);
+    }
+
+    return source;
+  }
+
+  /**
+   * Get disk cache of remote sources, create it with current settings on first use in process
+   *
+   * @return Cache instance or null, if cache is disabled
+   */
+  private RemoteAudioCache getRemoteAudioCache() {
+    if (!this.remoteCacheEnabled) {
+      return null;
+    }
+
+    if (this.remoteAudioCache == null) {
+      File directory = new File(this.context.getCacheDir(), "RNSound");
+      this.remoteAudioCache = RemoteAudioCache.getInstance(directory, this.remoteCacheMaxBytes, this.remoteCachePersistent);
+    }
+
+    return this.remoteAudioCache;
+  }
+
+  /**
+   * Set options of disk cache for remote sources, use only before first remote source is prepared
+   *
+   * @param options enabled, maxSize in bytes and persistent (keep cache of previous app sessions)
+   */
+  @ReactMethod
+  public void setRemoteCacheOptions(final ReadableMap options) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setRemoteCacheOptionsOnAudioThread(options);
+      }
+    });
+  }
+
+  void setRemoteCacheOptionsOnAudioThread(final ReadableMap options) {
+    if (options.hasKey("enabled")) {
+      this.remoteCacheEnabled = options.getBoolean("enabled");
+    }
+
+    // Cache of process may have been created before a reload of JS
+    if (this.remoteAudioCache != null || RemoteAudioCache.hasInstance()) {
+      if (options.hasKey("maxSize") || options.hasKey("persistent")) {
+        Log.w("RNSoundModule", "Remote cache is already in use, maxSize and persistent are ignored");
+      }
+
+      return;
+    }
+
+    if (options.hasKey("maxSize")) {
+      this.remoteCacheMaxBytes = (long) options.getDouble("maxSize");
+    }
+    if (options.hasKey("persistent")) {
+      this.remoteCachePersistent = options.getBoolean("persistent");
+    }
+  }
+
+  /**
+   * Get hit, miss and bytes saved statistics of disk cache for remote sources
+   *
+   * @param callback
+   */
+  @ReactMethod
+  public void getRemoteCacheStats(final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        getRemoteCacheStatsOnAudioThread(callback);
+      }
+    });
+  }
+
+  void getRemoteCacheStatsOnAudioThread(final Callback callback) {
+    WritableMap stats = Arguments.createMap();
+
+    if (this.remoteAudioCache != null) {
+      stats.putDouble("size", this.remoteAudioCache.getSizeInBytes());
+      stats.putDouble("hits", this.remoteAudioCache.getHits());
+      stats.putDouble("misses", this.remoteAudioCache.getMisses());
+      stats.putDouble("bytesSaved", this.remoteAudioCache.getBytesSaved());
+    }
+    else {
+      stats.putDouble("size", 0);
+      stats.putDouble("hits", 0);
+      stats.putDouble("misses", 0);
+      stats.putDouble("bytesSaved", 0);
+    }
+
+    stats.putDouble("maxSize", this.remoteAudioCache != null ? this.remoteAudioCache.getMaxBytes() : this.remoteCacheMaxBytes);
+
+    callback.invoke(stats);
+  }
+
+  /**
+   * Get player of key, which has finished preparation
+   *
+   * @param key
+   * @return Player or null, if no player of key is ready
+   */
+  ProcessingExoPlayer getReadyPlayer(final int key) {
+    PlayerEntry entry = this.playerRegistry.get(key);
+
+    return entry != null && entry.isReady() ? entry.player : null;
+  }
+
+  /**
+   * Mark player of key as ready for playback
+   *
+   * @param key
+   * @param player
+   */
+  void markPlayerReady(final int key, final ProcessingExoPlayer player) {
+    PlayerEntry entry = this.playerRegistry.get(key);
+
+    if (entry != null && entry.player == player) {
+      entry.state = PlayerEntry.STATE_READY;
+      this.markPlayerActive(key);
+    }
+  }
+
+  /**
+   * Reset idle time of player and check for idle players
+   *
+   * @param key
+   */
+  private void markPlayerActive(final int key) {
+    PlayerEntry entry = this.playerRegistry.get(key);
+
+    if (entry != null) {
+      entry.lastActiveMs = SystemClock.uptimeMillis();
+    }
+
+    this.audioHandler.removeCallbacks(this.idleCheck);
+    this.audioHandler.post(this.idleCheck);
+  }
+
+  /**
+   * Suspend players which are idle for idleTimeoutMs and least recently active idle players above
+   * maxWarmPlayers, schedule next check for the remaining idle players
+   */
+  void suspendIdlePlayers() {
+    long now = SystemClock.uptimeMillis();
+    long nextCheckMs = Long.MAX_VALUE;
+    List<PlayerEntry> idleEntries = new ArrayList<>();
+    int warmPlayers = 0;
+
+    for (int key : this.playerRegistry.keys()) {
+      PlayerEntry entry = this.playerRegistry.get(key);
+
+      if (entry == null || entry.player == null) {
+        continue;
+      }
+
+      warmPlayers++;
+
+      if (!entry.isReady() || entry.player.getPlayWhenReady()) {
+        continue;
+      }
+
+      if (this.idleTimeoutMs > 0 && now - entry.lastActiveMs >= this.idleTimeoutMs) {
+        this.suspendPlayer(entry);
+        warmPlayers--;
+      }
+      else {
+        idleEntries.add(entry);
+
+        if (this.idleTimeoutMs > 0) {
+          nextCheckMs = Math.min(nextCheckMs, entry.lastActiveMs + this.idleTimeoutMs - now);
+        }
+      }
+    }
+
+    // Suspend least recently active idle players first
+    if (warmPlayers > this.maxWarmPlayers) {
+      Collections.sort(idleEntries, new Comparator<PlayerEntry>() {
+        @Override
+        public int compare(PlayerEntry a, PlayerEntry b) {
+          return a.lastActiveMs < b.lastActiveMs ? -1 : (a.lastActiveMs == b.lastActiveMs ? 0 : 1);
+        }
+      });
+
+      for (int i = 0; i < idleEntries.size() && warmPlayers > this.maxWarmPlayers; i++) {
+        this.suspendPlayer(idleEntries.get(i));
+        warmPlayers--;
+      }
+    }
+
+    if (nextCheckMs != Long.MAX_VALUE) {
+      this.audioHandler.removeCallbacks(this.idleCheck);
+      this.audioHandler.postDelayed(this.idleCheck, Math.max(0, nextCheckMs));
+    }
+  }
+
+  /**
+   * Put player of entry back into pool and keep its source, position and settings under its key
+   *
+   * @param entry
+   */
+  private void suspendPlayer(final PlayerEntry entry) {
+    ProcessingExoPlayer player = entry.player;
+    ExoPlayerEventListener eventListener = entry.eventListener;
+
+    PlayerEntry.Suspension suspension = new PlayerEntry.Suspension(
+            eventListener.getSource(),
+            eventListener.getItemCount(),
+            player.getBufferProfile(),
+            eventListener.getNumberOfLoops(),
+            player.getPlaybackParameters(),
+            player.getCurrentWindowIndex(),
+            player.getCurrentPosition(),
+            player.getGainAudioProcessor().getVolume());
+
+    this.progressTicker.stop(entry.key);
+    this.recyclePlayer(entry.key, player, eventListener);
+    this.playerRegistry.put(entry.key, new PlayerEntry(entry.key, suspension));
+    this.suspensions++;
+  }
+
+  /**
+   * Run action with the ready player of key. A suspended player is prepared again first, the action
+   * runs once it is ready and its position and settings are restored.
+   *
+   * @param key
+   * @param action Receives ready player or null, if key has none
+   */
+  private void withPlayer(final int key, final PlayerEntry.Action action) {
+    PlayerEntry entry = this.playerRegistry.get(key);
+
+    if (entry != null && entry.isSuspended()) {
+      this.rehydratePlayer(entry);
+    }
+
+    List<PlayerEntry.Action> pendingActions = this.pendingPlayerActions.get(key);
+    if (pendingActions != null) {
+      pendingActions.add(action);
+
+      return;
+    }
+
+    action.run(this.getReadyPlayer(key));
+  }
+
+  /**
+   * Prepare suspended player again with its looping source, restore its position and settings and
+   * run the actions, which wait for it
+   *
+   * @param entry
+   */
+  private void rehydratePlayer(final PlayerEntry entry) {
+    final PlayerEntry.Suspension suspension = entry.suspension;
+    final int key = entry.key;
+    this.rehydrations++;
+
+    this.preparePlayer(suspension.source, suspension.itemCount, suspension.bufferProfile, suspension.numberOfLoops, key, new Callback() {
+      @Override
+      public void invoke(Object... args) {
+        ProcessingExoPlayer player = getReadyPlayer(key);
+
+        if (args.length > 0 && args[0] != null) {
+          player = null;
+        }
+
+        if (player != null) {
+          player.seekTo(suspension.windowIndex % suspension.itemCount, suspension.positionMs);
+          player.setPlaybackParameters(suspension.playbackParameters);
+          player.getGainAudioProcessor().setVolumeImmediately(suspension.volume);
+        }
+
+        runPendingPlayerActions(key, player);
+      }
+    });
+
+    this.pendingPlayerActions.put(key, new ArrayList<PlayerEntry.Action>());
+  }
+
+  /**
+   * Run actions, which wait for player of key
+   *
+   * @param key
+   * @param player Ready player or null, if preparation failed or player was released meanwhile
+   */
+  private void runPendingPlayerActions(final int key, final ProcessingExoPlayer player) {
+    List<PlayerEntry.Action> actions = this.pendingPlayerActions.get(key);
+
+    if (actions == null) {
+      return;
+    }
+
+    this.pendingPlayerActions.remove(key);
+
+    for (PlayerEntry.Action action : actions) {
+      action.run(player);
+    }
+  }
+
+  /**
+   * Set idle policy of players
+   *
+   * @param options idleTimeout in milliseconds (0 to disable) and maxWarmPlayers (maximum count of prepared players)
+   */
+  @ReactMethod
+  public void setIdlePolicy(final ReadableMap options) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setIdlePolicyOnAudioThread(options);
+      }
+    });
+  }
+
+  void setIdlePolicyOnAudioThread(final ReadableMap options) {
+    if (options.hasKey("idleTimeout")) {
+      this.idleTimeoutMs = (long) options.getDouble("idleTimeout");
+    }
+    if (options.hasKey("maxWarmPlayers")) {
+      this.maxWarmPlayers = Math.max(0, options.getInt("maxWarmPlayers"));
+    }
+
+    this.audioHandler.removeCallbacks(this.idleCheck);
+    this.suspendIdlePlayers();
+  }
+
+  /**
+   * Remove player from registry, detach event listener from player and put player back into pool of idle players
+   *
+   * @param key
+   * @param player
+   * @param eventListener
+   */
+  void recyclePlayer(final int key, final ProcessingExoPlayer player, final ExoPlayerEventListener eventListener) {
+    PlayerEntry entry = this.playerRegistry.get(key);
+
+    if (entry != null && entry.player == player) {
+      this.playerRegistry.remove(key);
+      entry.state = PlayerEntry.STATE_RELEASED;
+    }
+
+    player.removeListener(eventListener);
+    this.exoPlayerPool.recycle(player);
+  }
+
+  /**
+   * Request audio focus for player and duck or pause the other playing players by focus policy
+   *
+   * @param key
+   */
+  private void takeAudioFocus(final Integer key) {
+    if (!this.hasAudioFocus) {
+      AudioManager audioManager = (AudioManager) this.context.getSystemService(Context.AUDIO_SERVICE);
+      int result = audioManager.requestAudioFocus(this, AudioManager.STREAM_MUSIC, AudioManager.AUDIOFOCUS_GAIN);
+
+      this.hasAudioFocus = result == AudioManager.AUDIOFOCUS_REQUEST_GRANTED;
+    }
+
+    this.focusedPlayerKey = key;
+    this.focusDuckedKeys.remove(key);
+    this.focusPausedKeys.remove(key);
+
+    if (this.focusPolicy.equals(FOCUS_POLICY_MIX)) {
+      return;
+    }
+
+    // Keep other players prepared, so they can continue without preparation. Effects follow the
+    // same policy.
+    for (int otherKey : this.getPlayingKeys()) {
+      if (otherKey == key) {
+        continue;
+      }
+
+      if (this.focusPolicy.equals(FOCUS_POLICY_PAUSE)) {
+        this.pauseForFocus(otherKey);
+        this.focusPausedKeys.add(otherKey);
+      }
+      else {
+        this.focusDuckedKeys.add(otherKey);
+        this.applyDuckVolume(otherKey);
+      }
+    }
+  }
+
+  /**
+   * If player has audio focus, restore the other players and abandon audio focus,
+   * unless a restored player takes it
+   *
+   * @param key
+   */
+  private void releaseAudioFocus(final Integer key) {
+    if (!key.equals(this.focusedPlayerKey)) {
+      return;
+    }
+
+    this.focusedPlayerKey = null;
+
+    List<Integer> duckedKeys = new ArrayList<>(this.focusDuckedKeys);
+    this.focusDuckedKeys.clear();
+    for (Integer duckedKey : duckedKeys) {
+      this.applyDuckVolume(duckedKey);
+    }
+
+    List<Integer> pausedKeys = new ArrayList<>(this.focusPausedKeys);
+    this.focusPausedKeys.clear();
+    for (Integer pausedKey : pausedKeys) {
+      this.playOnAudioThread(pausedKey, null);
+    }
+
+    if (this.focusedPlayerKey == null && this.hasAudioFocus) {
+      AudioManager audioManager = (AudioManager) this.context.getSystemService(Context.AUDIO_SERVICE);
+      audioManager.abandonAudioFocus(this);
+
+      this.hasAudioFocus = false;
+    }
+  }
+
+  /**
+   * Remove player from players, which are paused or ducked by audio focus
+   *
+   * @param key
+   */
+  private void forgetAudioFocusState(final Integer key) {
+    this.focusPausedKeys.remove(key);
+    this.transientPausedKeys.remove(key);
+  }
+
+  /**
+   * Set volume of AudioTrack of player to duck volume, if it is ducked by the system or the
+   * focused player. Volume of sound is applied separately by its audio processor. Effects are
+   * ducked by the system via master volume of SoundMixer.
+   *
+   * @param key
+   */
+  private void applyDuckVolume(final int key) {
+    if (this.isEffect(key)) {
+      this.soundMixer.setDuckVolume(key, this.focusDuckedKeys.contains(key) ? this.duckVolume : 1f);
+
+      return;
+    }
+
+    ProcessingExoPlayer player = this.getReadyPlayer(key);
+
+    if (player != null) {
+      player.setVolume(this.systemDucked || this.focusDuckedKeys.contains(key) ? this.duckVolume : 1f);
+    }
+  }
+
+  /**
+   * Set options of audio focus handling of players with mixWithOthers false
+   *
+   * @param options otherPlayers (duck, pause or mix other players of app while a player has focus), duckVolume
+   *                and duckOnTransientLoss (duck instead of pause, if another app may play at lower volume)
+   */
+  @ReactMethod
+  public void setFocusPolicy(final ReadableMap options) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setFocusPolicyOnAudioThread(options);
+      }
+    });
+  }
+
+  void setFocusPolicyOnAudioThread(final ReadableMap options) {
+    if (options.hasKey("otherPlayers")) {
+      this.focusPolicy = options.getString("otherPlayers");
+    }
+    if (options.hasKey("duckVolume")) {
+      this.duckVolume = (float) options.getDouble("duckVolume");
+    }
+    if (options.hasKey("duckOnTransientLoss")) {
+      this.duckOnTransientLoss = options.getBoolean("duckOnTransientLoss");
+    }
+  }
+
+  /**
+   * Player play audio
+   *
+   * @param key
+   * @param callback
+   */
+  @ReactMethod
+  public void play(final Integer key, final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        playOnAudioThread(key, callback);
+      }
+    });
+  }
+
+  void playOnAudioThread(final Integer key, final Callback callback) {
+    // Play effect via SoundMixer
+    if (this.isEffect(key)) {
+      boolean started = this.soundMixer.play(key);
+
+      if (callback != null) {
+        callback.invoke(started);
+      }
+
+      if (started) {
+        this.progressTicker.start(key);
+        this.sendPlayingEvent(key, true, this.soundMixer.getPositionMs(key));
+      }
+
+      return;
+    }
+
+    // Get player from registry, suspended player is prepared again first
+    this.withPlayer(key, new PlayerEntry.Action() {
+      @Override
+      public void run(ProcessingExoPlayer player) {
+        if (player == null) {
+          if (callback != null) {
+            callback.invoke(false);
+          }
+
+          return;
+        }
+
+        // Is player already playing
+        if (player.getPlayWhenReady()) {
+          return;
+        }
+
+        // Request audio focus in Android system (playback without any other audio playbacks on system)
+        if (!mixWithOthers) {
+          forgetAudioFocusState(key);
+          takeAudioFocus(key);
+        }
+
+        startPlayer(key, player, callback);
+      }
+    });
+  }
+
+  /**
+   * Start playback of ready player without changing audio focus
+   *
+   * @param key
+   * @param player
+   * @param callback
+   */
+  private void startPlayer(final Integer key, final ProcessingExoPlayer player, final Callback callback) {
+    // Set player to playing
+    this.applyDuckVolume(key);
+    player.setPlayWhenReady(true);
+    this.markPlayerActive(key);
+    this.measureStartLatency(player, this.audioHandler);
+
+    if (callback != null) {
+      callback.invoke(true);
+    }
+
+    // Start progress events
+    this.progressTicker.start(key);
+
+    // Send event to event emitter
+    WritableMap data = Arguments.createMap();
+    data.putBoolean("isPlaying", true);
+    Long positionInMs = player.getCurrentPosition();
+    data.putDouble("currentTime", Math.floor(positionInMs * .001));
+    this.sendEvent("RNSound-playing", key, data);
+  }
+
+  /**
+   * Start several players together, each after its own offset. Effects start in the same buffer of
+   * SoundMixer with sample accurate offsets, other players are started via handler.
+   *
+   * @param layers Array of key and optional offset in seconds
+   * @param callback Receives array of results with key and success
+   */
+  @ReactMethod
+  public void playTogether(final ReadableArray layers, final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        playTogetherOnAudioThread(layers, callback);
+      }
+    });
+  }
+
+  void playTogetherOnAudioThread(final ReadableArray layers, final Callback callback) {
+    int count = layers.size();
+    int[] keys = new int[count];
+    long[] offsetsMs = new long[count];
+    boolean[] effects = new boolean[count];
+    int effectCount = 0;
+
+    for (int i = 0; i < count; i++) {
+      ReadableMap layer = layers.getMap(i);
+      keys[i] = layer.getInt("key");
+      offsetsMs[i] = layer.hasKey("offset") ? (long) Math.max(0, layer.getDouble("offset") * 1000) : 0;
+      effects[i] = this.isEffect(keys[i]);
+
+      if (effects[i]) {
+        effectCount++;
+      }
+    }
+
+    // Start all effects under one lock of mixer
+    int[] effectKeys = new int[effectCount];
+    long[] effectOffsetsMs = new long[effectCount];
+    for (int i = 0, e = 0; i < count; i++) {
+      if (effects[i]) {
+        effectKeys[e] = keys[i];
+        effectOffsetsMs[e++] = offsetsMs[i];
+      }
+    }
+    boolean[] effectsStarted = effectCount > 0 ? this.soundMixer.playTogether(effectKeys, effectOffsetsMs) : new boolean[0];
+
+    final BatchResult result = new BatchResult(count, callback != null ? callback : new Callback() {
+      @Override
+      public void invoke(Object... args) {
+      }
+    });
+
+    for (int i = 0, e = 0; i < count; i++) {
+      final int key = keys[i];
+      final int index = i;
+      final long offsetMs = offsetsMs[i];
+
+      if (effects[i]) {
+        boolean success = effectsStarted[e++];
+
+        if (success) {
+          this.progressTicker.start(key);
+          this.sendPlayingEvent(key, true, this.soundMixer.getPositionMs(key));
+        }
+
+        result.complete(index, key, success);
+
+        continue;
+      }
+
+      // Start player after its offset, suspended player is prepared again first
+      final long requestNanos = System.nanoTime();
+      this.withPlayer(key, new PlayerEntry.Action() {
+        @Override
+        public void run(ProcessingExoPlayer player) {
+          result.complete(index, key, player != null);
+
+          if (player == null) {
+            return;
+          }
+
+          long delayMs = offsetMs - (System.nanoTime() - requestNanos) / 1000000;
+          if (delayMs <= 0) {
+            playOnAudioThread(key, null);
+          }
+          else {
+            audioHandler.postDelayed(new Runnable() {
+              @Override
+              public void run() {
+                playOnAudioThread(key, null);
+              }
+            }, delayMs);
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Get current host time, which is the clock of playAt() and scheduleSequence()
+   *
+   * @param callback Receives time in milliseconds
+   */
+  @ReactMethod
+  public void getHostTime(final Callback callback) {
+    callback.invoke(System.nanoTime() / 1000000.0);
+  }
+
+  /**
+   * Start playback at a host time. Effects are queued in SoundMixer ahead of time and start at the
+   * frame of the host time, other players are started via handler.
+   *
+   * @param key
+   * @param hostTimeMs Time of start in clock of getHostTime()
+   * @param callback Receives error or scheduledTime and actual startTime in milliseconds
+   */
+  @ReactMethod
+  public void playAt(final Integer key, final Double hostTimeMs, final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        playAtOnAudioThread(key, hostTimeMs, callback);
+      }
+    });
+  }
+
+  void playAtOnAudioThread(final Integer key, final Double hostTimeMs, final Callback callback) {
+    final long hostNanos = (long) (hostTimeMs * 1000000);
+
+    // Queue start in SoundMixer, callback is invoked by onVoiceStarted()
+    if (this.isEffect(key)) {
+      this.scheduledStarts.add(key, hostNanos, callback);
+
+      // Mixer is full, fail only this start, earlier starts of key stay scheduled
+      if (!this.soundMixer.schedule(key, hostNanos)) {
+        this.scheduledStarts.remove(key, hostNanos, callback);
+      }
+
+      return;
+    }
+
+    // Suspended player is prepared again first
+    this.withPlayer(key, new PlayerEntry.Action() {
+      @Override
+      public void run(ProcessingExoPlayer player) {
+        if (player == null) {
+          WritableMap e = Arguments.createMap();
+          e.putInt("code", -1);
+          e.putString("message", "player not ready");
+
+          callback.invoke(e, NULL);
+
+          return;
+        }
+
+        // Start player on handler, without accuracy of audio clock
+        long delayMs = (hostNanos - System.nanoTime()) / 1000000;
+        audioHandler.postDelayed(new Runnable() {
+          @Override
+          public void run() {
+            long startNanos = System.nanoTime();
+            playOnAudioThread(key, null);
+
+            WritableMap props = Arguments.createMap();
+            props.putDouble("scheduledTime", hostTimeMs);
+            props.putDouble("startTime", startNanos / 1000000.0);
+
+            callback.invoke(NULL, props);
+          }
+        }, Math.max(0, delayMs));
+      }
+    });
+  }
+
+  /**
+   * Schedule several starts via playAt() and invoke one callback when all have started
+   *
+   * @param items Array of key and time in clock of getHostTime()
+   * @param callback Receives array of results with key, success and error or props with scheduledTime and startTime
+   */
+  @ReactMethod
+  public void scheduleSequence(final ReadableArray items, final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        scheduleSequenceOnAudioThread(items, callback);
+      }
+    });
+  }
+
+  void scheduleSequenceOnAudioThread(final ReadableArray items, final Callback callback) {
+    BatchResult result = new BatchResult(items.size(), callback);
+
+    for (int i = 0; i < items.size(); i++) {
+      ReadableMap item = items.getMap(i);
+      int key = item.getInt("key");
+
+      this.playAtOnAudioThread(key, item.getDouble("time"), result.callbackFor(i, key));
+    }
+  }
+
+  /**
+   * Player pause audio
+   *
+   * @param key
+   * @param callback
+   */
+  @ReactMethod
+  public void pause(final Integer key, final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        pauseOnAudioThread(key, callback);
+      }
+    });
+  }
+
+  void pauseOnAudioThread(final Integer key, final Callback callback) {
+    this.forgetAudioFocusState(key);
+
+    // Pause effect via SoundMixer
+    if (this.isEffect(key)) {
+      this.pauseEffect(key, callback);
+
+      return;
+    }
+
+    // Suspended player is paused already
+    PlayerEntry entry = this.playerRegistry.get(key);
+    if (entry != null && entry.isSuspended()) {
+      if (callback != null) {
+        callback.invoke(true);
+      }
+
+      return;
+    }
+
+    // Get player from registry, also if it is prepared again after suspension
+    this.withPlayer(key, new PlayerEntry.Action() {
+      @Override
+      public void run(ProcessingExoPlayer player) {
+        if (player == null) {
+          if (callback != null) {
+            callback.invoke(false);
+          }
+
+          return;
+        }
+
+        pausePlayer(key, player, callback);
+        releaseAudioFocus(key);
+      }
+    });
+  }
+
+  /**
+   * Pause effect via SoundMixer without changing audio focus
+   *
+   * @param key
+   * @param callback
+   */
+  private void pauseEffect(final Integer key, final Callback callback) {
+    this.soundMixer.pause(key);
+    this.scheduledStarts.cancel(key);
+    this.progressTicker.stop(key);
+
+    if (callback != null) {
+      callback.invoke(true);
+    }
+
+    this.sendPlayingEvent(key, false, this.soundMixer.getPositionMs(key));
+  }
+
+  /**
+   * Pause playing player or effect of key for audio focus, without changing audio focus
+   *
+   * @param key
+   */
+  private void pauseForFocus(final int key) {
+    if (this.isEffect(key)) {
+      this.pauseEffect(key, null);
+    }
+    else {
+      this.pausePlayer(key, this.getReadyPlayer(key), null);
+    }
+  }
+
+  /**
+   * Get keys of ready players and effects, which are playing
+   *
+   * @return Keys
+   */
+  private List<Integer> getPlayingKeys() {
+    List<Integer> keys = new ArrayList<>();
+
+    for (int key : this.playerRegistry.keys()) {
+      ProcessingExoPlayer player = this.getReadyPlayer(key);
+
+      if (player != null && player.getPlayWhenReady()) {
+        keys.add(key);
+      }
+    }
+
+    for (int i = 0; i < this.effectFileNames.size(); i++) {
+      int key = this.effectFileNames.keyAt(i);
+
+      if (this.soundMixer.isPlaying(key)) {
+        keys.add(key);
+      }
+    }
+
+    return keys;
+  }
+
+  /**
+   * Pause playback of ready player without changing audio focus
+   *
+   * @param key
+   * @param player
+   * @param callback
+   */
+  private void pausePlayer(final Integer key, final ProcessingExoPlayer player, final Callback callback) {
+    // Set player to pause
+    player.setPlayWhenReady(false);
+    this.markPlayerActive(key);
+    this.progressTicker.stop(key);
+
+    if (callback != null) {
+      callback.invoke(true);
+    }
+
+    // Send event to event emitter
+    WritableMap data = Arguments.createMap();
+    data.putBoolean("isPlaying", false);
+    Long positionInMs = player.getCurrentPosition();
+    data.putDouble("currentTime", Math.floor(positionInMs * .001));
+    this.sendEvent("RNSound-playing", key, data);
+  }
+
+  /**
+   * Player stop audio
+   * @param key
+   * @param callback
+   */
+  @ReactMethod
+  public void stop(final Integer key, final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        stopOnAudioThread(key, callback);
+      }
+    });
+  }
+
+  void stopOnAudioThread(final Integer key, final Callback callback) {
+    this.forgetAudioFocusState(key);
+
+    // Stop effect via SoundMixer
+    if (this.isEffect(key)) {
+      this.soundMixer.stop(key);
+      this.scheduledStarts.cancel(key);
+      this.progressTicker.stop(key);
+
+      if (callback != null) {
+        callback.invoke(true);
+      }
+
+      this.sendPlayingEvent(key, false, 0);
+
+      return;
+    }
+
+    // Rewind suspended player until it is prepared again
+    PlayerEntry entry = this.playerRegistry.get(key);
+    if (entry != null && entry.isSuspended()) {
+      entry.suspension.windowIndex = 0;
+      entry.suspension.positionMs = 0;
+
+      if (callback != null) {
+        callback.invoke(true);
+      }
+
+      return;
+    }
+
+    // Get player from registry, also if it is prepared again after suspension
+    this.withPlayer(key, new PlayerEntry.Action() {
+      @Override
+      public void run(ProcessingExoPlayer player) {
+        if (player == null) {
+          if (callback != null) {
+            callback.invoke(false);
+          }
+
+          return;
+        }
+
+        stopPlayer(key, player, callback);
+      }
+    });
+  }
+
+  /**
+   * Stop playback of ready player and rewind it
+   *
+   * @param key
+   * @param player
+   * @param callback
+   */
+  private void stopPlayer(final Integer key, final ProcessingExoPlayer player, final Callback callback) {
+    // Pause player, if it is playing
+    if (player.getPlayWhenReady()) {
+      player.setPlayWhenReady(false);
+    }
+
+    // Seek to begin of playback time
+    player.seekTo(0);
+    this.progressTicker.stop(key);
+    this.markPlayerActive(key);
+
+    // Release audio focus in Android system
+    this.releaseAudioFocus(key);
+
+    if (callback != null) {
+      callback.invoke(true);
+    }
+
+    // Send event to event emitter
+    WritableMap data = Arguments.createMap();
+    data.putBoolean("isPlaying", false);
+    Long positionInMs = player.getCurrentPosition();
+    data.putDouble("currentTime", Math.floor(positionInMs * .001));
+    this.sendEvent("RNSound-playing", key, data);
+  }
+
+  /**
+   * Release ExoPlayer instance by player key
+   *
+   * @param key
+   */
+  @ReactMethod
+  public void release(final Integer key) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        removeTapOnAudioThread(key);
+        releaseOnAudioThread(key);
+      }
+    });
+  }
+
+  void releaseOnAudioThread(final Integer key) {
+    // Drop key from effect decodes in flight, so no voice is registered for it afterwards
+    this.cancelPrepare(key);
+
+    // Release effect of SoundMixer
+    if (this.isEffect(key)) {
+      this.soundMixer.removeVoice(key);
+      this.scheduledStarts.cancel(key);
+      this.progressTicker.remove(key);
+      this.effectFileNames.remove(key);
+      this.forgetAudioFocusState(key);
+      this.focusDuckedKeys.remove(key);
+
+      return;
+    }
+
+    // Fail operations waiting for player, which is prepared again after suspension
+    this.runPendingPlayerActions(key, null);
+
+    // Get player from registry, also if it is still preparing
+    PlayerEntry entry = this.playerRegistry.get(key);
+
+    if (entry == null) {
+      return;
+    }
+
+    // Drop state of suspended player
+    if (entry.isSuspended()) {
+      this.playerRegistry.remove(key);
+
+      return;
+    }
+
+    ProcessingExoPlayer player = entry.player;
+
+    // Pause player, if it is playing
+    if (player.getPlayWhenReady()) {
+      player.setPlayWhenReady(false);
+    }
+
+    // Reset player and put it back into pool of idle players
+    this.progressTicker.remove(key);
+    this.recyclePlayer(key, player, entry.eventListener);
+
+    // Release audio focus in Android system
+    this.forgetAudioFocusState(key);
+    this.focusDuckedKeys.remove(key);
+    this.releaseAudioFocus(key);
+  }
+
+  /**
+   * On playback of player ends release its audio focus
+   *
+   * @param key
+   */
+  void onPlayerEnded(final Integer key) {
+    this.progressTicker.stop(key);
+    this.releaseAudioFocus(key);
+  }
+
+  /**
+   * Set volume of audio playback
+   *
+   * @param key
+   * @param volume
+   */
+  @ReactMethod
+  public void setVolume(final Integer key, final Float volume) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setVolumeOnAudioThread(key, volume);
+      }
+    });
+  }
+
+  void setVolumeOnAudioThread(final Integer key, final Float volume) {
+    if (this.isEffect(key)) {
+      this.soundMixer.setVolume(key, volume);
+
+      return;
+    }
+
+    // Keep volume of suspended player until it is prepared again
+    PlayerEntry entry = this.playerRegistry.get(key);
+    if (entry != null && entry.isSuspended()) {
+      entry.suspension.volume = volume;
+
+      return;
+    }
+
+    // Get player from registry, also if it is prepared again after suspension
+    this.withPlayer(key, new PlayerEntry.Action() {
+      @Override
+      public void run(ProcessingExoPlayer player) {
+        if (player == null) {
+          return;
+        }
+
+        // Apply volume via audio processor, which ramps it over one buffer
+        player.getGainAudioProcessor().setVolume(volume);
+      }
+    });
+  }
+
+  /**
+   * Fade volume of audio playback natively, ramped per sample within each buffer of audio
+   *
+   * @param key
+   * @param volume Target volume
+   * @param durationMs
+   * @param curve linear, equalPower or exponential
+   * @param callback Receives true when target volume is reached, false if fade was replaced or player is not ready
+   */
+  @ReactMethod
+  public void fadeTo(final Integer key, final Float volume, final Integer durationMs, final String curve, final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        fadeToOnAudioThread(key, volume, durationMs, curve, callback);
+      }
+    });
+  }
+
+  void fadeToOnAudioThread(final Integer key, final Float volume, final Integer durationMs, final String curve, final Callback callback) {
+    Fade.Listener listener = null;
+    if (callback != null) {
+      listener = new Fade.Listener() {
+        @Override
+        public void onFadeEnded(boolean completed) {
+          callback.invoke(completed);
+        }
+      };
+    }
+
+    if (this.isEffect(key)) {
+      if (!this.soundMixer.fadeTo(key, volume, durationMs, Fade.parseCurve(curve), listener) && callback != null) {
+        callback.invoke(false);
+      }
+
+      return;
+    }
+
+    // Keep volume of suspended player, fade progresses with played audio only
+    PlayerEntry entry = this.playerRegistry.get(key);
+    if (entry != null && entry.isSuspended()) {
+      entry.suspension.volume = volume;
+
+      if (callback != null) {
+        callback.invoke(true);
+      }
+
+      return;
+    }
+
+    // Get player from registry, also if it is prepared again after suspension
+    final Fade.Listener fadeListener = listener;
+    this.withPlayer(key, new PlayerEntry.Action() {
+      @Override
+      public void run(ProcessingExoPlayer player) {
+        if (player == null) {
+          if (callback != null) {
+            callback.invoke(false);
+          }
+
+          return;
+        }
+
+        // Fade progresses with played audio only, set volume of paused player immediately
+        if (!player.getPlayWhenReady()) {
+          player.getGainAudioProcessor().setVolumeImmediately(volume);
+
+          if (callback != null) {
+            callback.invoke(true);
+          }
+
+          return;
+        }
+
+        player.getGainAudioProcessor().fadeTo(volume, durationMs, Fade.parseCurve(curve), fadeListener);
+      }
+    });
+  }
+
+  /**
+   * Fade out one player and fade in another one, which is started from silence if it is not playing.
+   * The faded out player is paused at the end of the fade.
+   *
+   * @param fromKey
+   * @param toKey
+   * @param volume Target volume of faded in player
+   * @param durationMs
+   * @param curve linear, equalPower or exponential
+   * @param callback Receives array of results of both fades with key and success
+   */
+  @ReactMethod
+  public void crossfade(final Integer fromKey, final Integer toKey, final Float volume, final Integer durationMs, final String curve, final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        crossfadeOnAudioThread(fromKey, toKey, volume, durationMs, curve, callback);
+      }
+    });
+  }
+
+  void crossfadeOnAudioThread(final Integer fromKey, final Integer toKey, final Float volume, final Integer durationMs, final String curve, final Callback callback) {
+    final BatchResult result = new BatchResult(2, callback);
+
+    // Start faded in player from silence, suspended player is prepared again first
+    if (!this.isPlaying(toKey)) {
+      if (this.isEffect(toKey)) {
+        this.soundMixer.setVolume(toKey, 0);
+      }
+      else {
+        this.withPlayer(toKey, new PlayerEntry.Action() {
+          @Override
+          public void run(ProcessingExoPlayer player) {
+            if (player != null) {
+              player.getGainAudioProcessor().setVolumeImmediately(0);
+            }
+          }
+        });
+      }
+
+      this.playOnAudioThread(toKey, null);
+    }
+
+    final Callback fadeOutCallback = result.callbackFor(0, fromKey);
+    this.fadeToOnAudioThread(fromKey, 0f, durationMs, curve, new Callback() {
+      @Override
+      public void invoke(Object... args) {
+        // Pause faded out player on audio thread
+        if (Boolean.TRUE.equals(args[0])) {
+          audioHandler.post(new Runnable() {
+            @Override
+            public void run() {
+              pauseOnAudioThread(fromKey, null);
+            }
+          });
+        }
+
+        fadeOutCallback.invoke(args);
+      }
+    });
+    this.fadeToOnAudioThread(toKey, volume, durationMs, curve, result.callbackFor(1, toKey));
+  }
+
+  /**
+   * Check if a player or effect of key is playing
+   *
+   * @param key
+   * @return
+   */
+  private boolean isPlaying(final Integer key) {
+    if (this.isEffect(key)) {
+      return this.soundMixer.isPlaying(key);
+    }
+
+    ProcessingExoPlayer player = this.getReadyPlayer(key);
+
+    return player != null && player.getPlayWhenReady();
+  }
+
+  /**
+   * Set stereo position of audio playback, supported by effects only
+   *
+   * @param key
+   * @param pan From -1 (left) through 1 (right)
+   */
+  @ReactMethod
+  public void setPan(final Integer key, final Float pan) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setPanOnAudioThread(key, pan);
+      }
+    });
+  }
+
+  void setPanOnAudioThread(final Integer key, final Float pan) {
+    if (this.isEffect(key)) {
+      this.soundMixer.setPan(key, pan);
+    }
+  }
+
+  /**
+   * Get volume of system audio (STREAM_MUSIC)
+   *
+   * @param callback
+   */
+  @ReactMethod
+  public void getSystemVolume(final Callback callback) {
+    if (callback == null) {
+      return;
+    }
+
+    try {
+      AudioManager audioManager = (AudioManager) this.context.getSystemService(Context.AUDIO_SERVICE);
+
+      callback.invoke(NULL, (float) audioManager.getStreamVolume(AudioManager.STREAM_MUSIC) / audioManager.getStreamMaxVolume(AudioManager.STREAM_MUSIC));
+    }
+    catch (Exception error) {
+      WritableMap e = Arguments.createMap();
+      e.putInt("code", -1);
+      e.putString("message", error.getMessage());
+
+      callback.invoke(e);
+    }
+  }
+
+  /**
+   * Get volume of system audio (STREAM_MUSIC)
+   *
+   * @param value
+   */
+  @ReactMethod
+  public void setSystemVolume(final Float value) {
+    AudioManager audioManager = (AudioManager) this.context.getSystemService(Context.AUDIO_SERVICE);
+
+    int volume = Math.round(audioManager.getStreamMaxVolume(AudioManager.STREAM_MUSIC) * value);
+    audioManager.setStreamVolume(AudioManager.STREAM_MUSIC, volume, 0);
+  }
+
+  /**
+   * Set if audio playback should be looping
+   *
+   * @param key
+   * @param shouldLooping
+   */
+  @ReactMethod
+  public void setLooping(final Integer key, final Boolean shouldLooping) {
+    this.setNumberOfLoops(key, shouldLooping ? -1 : 0);
+  }
+
+  /**
+   * Set count of repetitions of audio playback
+   *
+   * @param key
+   * @param numberOfLoops Count of repetitions after first playback, negative for infinite looping
+   */
+  @ReactMethod
+  public void setNumberOfLoops(final Integer key, final Integer numberOfLoops) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setNumberOfLoopsOnAudioThread(key, numberOfLoops);
+      }
+    });
+  }
+
+  void setNumberOfLoopsOnAudioThread(final Integer key, final Integer numberOfLoops) {
+    if (this.isEffect(key)) {
+      this.soundMixer.setLoops(key, numberOfLoops);
+
+      return;
+    }
+
+    // Get player from registry, also if it is still preparing
+    PlayerEntry entry = this.playerRegistry.get(key);
+
+    if (entry == null) {
+      return;
+    }
+
+    // Keep looping of suspended player until it is prepared again
+    if (entry.isSuspended()) {
+      entry.suspension.numberOfLoops = numberOfLoops;
+
+      return;
+    }
+
+    // Set looping
+    entry.eventListener.setNumberOfLoops(numberOfLoops);
+  }
+
+  /**
+   * Set speed of audio playback
+   *
+   * @param key
+   * @param speed
+   */
+  @ReactMethod
+  public void setSpeed(final Integer key, final Float speed, final ReadableMap options) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        int mode = options != null && options.hasKey("mode") ? PcmVariants.parseMode(options.getString("mode")) : PcmVariants.MODE_STRETCH;
+        boolean prerender = options != null && options.hasKey("prerender") && options.getBoolean("prerender");
+
+        setSpeedOnAudioThread(key, speed, mode, prerender);
+      }
+    });
+  }
+
+  void setSpeedOnAudioThread(final Integer key, final Float speed) {
+    this.setSpeedOnAudioThread(key, speed, PcmVariants.MODE_STRETCH, false);
+  }
+
+  /**
+   * Set playback speed in rate mode. Effects resample in real time, time-stretched or pre-rendered
+   * effects play a cached variant of their clip rendered at the speed.
+   *
+   * @param key
+   * @param speed
+   * @param mode Mode constant of PcmVariants
+   * @param prerender Whether effect plays a pre-rendered variant
+   */
+  void setSpeedOnAudioThread(final Integer key, final Float speed, final int mode, final boolean prerender) {
+    if (this.isEffect(key)) {
+      this.setEffectSpeed(key, speed, mode, prerender);
+
+      return;
+    }
+
+    final PlaybackParameters playbackParameters = new PlaybackParameters(speed, mode == PcmVariants.MODE_RESAMPLE ? speed : 1);
+
+    // Keep speed of suspended player until it is prepared again
+    PlayerEntry entry = this.playerRegistry.get(key);
+    if (entry != null && entry.isSuspended()) {
+      entry.suspension.playbackParameters = playbackParameters;
+
+      return;
+    }
+
+    // Get player from registry, also if it is prepared again after suspension
+    this.withPlayer(key, new PlayerEntry.Action() {
+      @Override
+      public void run(ProcessingExoPlayer player) {
+        if (player == null) {
+          return;
+        }
+
+        // Set playback speed
+        player.setPlaybackParameters(playbackParameters);
+      }
+    });
+  }
+
+  /**
+   * Switch effect to real time resampling of its clip or to a variant rendered on decode thread
+   *
+   * @param key
+   * @param speed
+   * @param mode
+   * @param prerender
+   */
+  private void setEffectSpeed(final Integer key, final float speed, final int mode, final boolean prerender) {
+    final String fileName = this.effectFileNames.get(key);
+    final SoundMixer mixer = this.soundMixer;
+
+    if (fileName == null) {
+      return;
+    }
+
+    // Runs after decoding of effect and previous speed changes
+    this.decodeExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          // Base clip of the effect is no lookup of the app, so it is not counted
+          PcmClip clip = loadClip(fileName, mixer, false);
+
+          if (speed == 1 || (mode == PcmVariants.MODE_RESAMPLE && !prerender)) {
+            mixer.replaceClip(key, clip, 1);
+            mixer.setRate(key, speed);
+
+            return;
+          }
+
+          String variantKey = PcmVariants.cacheKey(fileName, speed, mode);
+          PcmClip variant = pcmCache.peek(variantKey);
+
+          if (variant == null) {
+            variant = PcmVariants.render(clip, speed, mode);
+            pcmCache.putVariant(variantKey, variant);
+          }
+
+          mixer.setRate(key, 1);
+          mixer.replaceClip(key, variant, speed);
+        }
+        catch (IOException error) {
+          Log.e("RNSoundModule", "Exception", error);
+        }
+      }
+    });
+  }
+
+  /**
+   * Set current time of audio playback position
+   * @param key
+   * @param sec Seconds from start
+   */
+  @ReactMethod
+  public void setCurrentTime(final Integer key, final Float sec) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setCurrentTimeOnAudioThread(key, sec);
+      }
+    });
+  }
+
+  void setCurrentTimeOnAudioThread(final Integer key, final Float sec) {
+    if (this.isEffect(key)) {
+      this.soundMixer.setPositionMs(key, (long) Math.floor(sec * 1000));
+
+      return;
+    }
+
+    // Keep position of suspended player until it is prepared again
+    PlayerEntry entry = this.playerRegistry.get(key);
+    if (entry != null && entry.isSuspended()) {
+      entry.suspension.positionMs = (long) Math.floor(sec * 1000);
+
+      return;
+    }
+
+    // Get player from registry, also if it is prepared again after suspension
+    this.withPlayer(key, new PlayerEntry.Action() {
+      @Override
+      public void run(ProcessingExoPlayer player) {
+        if (player == null) {
+          return;
+        }
+
+        // Seek to position
+        player.seekTo((long) Math.floor(sec * 1000));
+        markPlayerActive(key);
+      }
+    });
+  }
+
+  /**
+   * Get current time of audio playback position
+   *
+   * @param key
+   * @param callback
+   */
+  @ReactMethod
+  public void getCurrentTime(final Integer key, final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        getCurrentTimeOnAudioThread(key, callback);
+      }
+    });
+  }
+
+  void getCurrentTimeOnAudioThread(final Integer key, final Callback callback) {
+    if (this.isEffect(key)) {
+      callback.invoke(this.soundMixer.getPositionMs(key) * .001, this.soundMixer.isPlaying(key));
+
+      return;
+    }
+
+    // Position of suspended player is kept in its entry
+    PlayerEntry entry = this.playerRegistry.get(key);
+    if (entry != null && entry.isSuspended()) {
+      callback.invoke(entry.suspension.positionMs * .001, false);
+
+      return;
+    }
+
+    // Get player from registry
+    ProcessingExoPlayer player = this.getReadyPlayer(key);
 
     if (player == null) {
+      callback.invoke(-1, false);
+
       return;
     }
 
-    // Pause player, if it is playing
-    if (player.getPlayWhenReady()) {
-      player.setPlayWhenReady(false);
+    // Return position in seconds and isPlaying status
+    Long positionInMs = player.getCurrentPosition();
+    callback.invoke((positionInMs * .001), player.getPlayWhenReady());
+  }
+
+  /**
+   * Set speaker of Android phone on or off for audio playback
+   * @param key
+   * @param speaker
+   */
+  @ReactMethod
+  public void setSpeakerphoneOn(final Integer key, final Boolean speaker) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setSpeakerphoneOnOnAudioThread(key, speaker);
+      }
+    });
+  }
+
+  void setSpeakerphoneOnOnAudioThread(final Integer key, final Boolean speaker) {
+    // Get player from registry, suspended player is prepared again first
+    this.withPlayer(key, new PlayerEntry.Action() {
+      @Override
+      public void run(ProcessingExoPlayer player) {
+        if (player == null) {
+          return;
+        }
+
+        // Set playback to speakers
+        player.setAudioStreamType(AudioManager.STREAM_MUSIC); // Speakers possible for STREAM_MUSIC only
+        AudioManager audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
+        audioManager.setMode(AudioManager.MODE_IN_COMMUNICATION);
+        audioManager.setSpeakerphoneOn(speaker);
+      }
+    });
+  }
+
+  /**
+   * Set category and mixWithOthers to module, but use only for new players in prepare()
+   *
+   * @param category
+   * @param mixWithOthers
+   */
+  @ReactMethod
+  public void setCategory(final String category, final Boolean mixWithOthers) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setCategoryOnAudioThread(category, mixWithOthers);
+      }
+    });
+  }
+
+  void setCategoryOnAudioThread(final String category, final Boolean mixWithOthers) {
+    this.category = category;
+    this.mixWithOthers = mixWithOthers;
+  }
+
+  /**
+   * Apply operations on many players in one pass and invoke one callback with the results of all operations.
+   * Each operation has a method (prepare, play, pause, stop, release, setVolume, setLooping, setSpeed,
+   * setCurrentTime), a key and depending on method a value or fileName and options.
+   *
+   * @param operations
+   * @param callback Receives array of results with key, success and for prepare error or props
+   */
+  @ReactMethod
+  public void batch(final ReadableArray operations, final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        batchOnAudioThread(operations, callback);
+      }
+    });
+  }
+
+  void batchOnAudioThread(final ReadableArray operations, final Callback callback) {
+    final BatchResult result = new BatchResult(operations.size(), callback);
+
+    for (int i = 0; i < operations.size(); i++) {
+      ReadableMap operation = operations.getMap(i);
+      String method = operation.getString("method");
+      final Integer key = operation.getInt("key");
+      Callback operationCallback = result.callbackFor(i, key);
+
+      switch (method) {
+        case "prepare":
+          ReadableMap options = operation.hasKey("options") ? operation.getMap("options") : Arguments.createMap();
+          this.prepareOnAudioThread(operation.getString("fileName"), key, options, operationCallback);
+          break;
+        case "play":
+          this.playOnAudioThread(key, operationCallback);
+          break;
+        case "pause":
+          this.pauseOnAudioThread(key, operationCallback);
+          break;
+        case "stop":
+          this.stopOnAudioThread(key, operationCallback);
+          break;
+        case "release":
+          result.complete(i, key, this.hasPlayer(key));
+          this.releaseOnAudioThread(key);
+          break;
+        case "setVolume":
+          result.complete(i, key, this.hasPlayer(key));
+          this.setVolumeOnAudioThread(key, (float) operation.getDouble("value"));
+          break;
+        case "setLooping":
+          result.complete(i, key, this.hasPlayer(key));
+          this.setNumberOfLoopsOnAudioThread(key, operation.getBoolean("value") ? -1 : 0);
+          break;
+        case "setSpeed":
+          result.complete(i, key, this.hasPlayer(key));
+          this.setSpeedOnAudioThread(key, (float) operation.getDouble("value"));
+          break;
+        case "setCurrentTime":
+          result.complete(i, key, this.hasPlayer(key));
+          this.setCurrentTimeOnAudioThread(key, (float) operation.getDouble("value"));
+          break;
+        default:
+          Log.e("RNSoundModule", String.format("Unrecognised batch method %s", method));
+          result.complete(i, key, false);
+          break;
+      }
+
+      if (method.equals("prepare") || result.isComplete(i)) {
+        continue;
+      }
+
+      // Complete operation waiting for a suspended player once it ran, it fails if the player cannot be
+      // prepared again
+      List<PlayerEntry.Action> pendingActions = this.pendingPlayerActions.get(key);
+      if (pendingActions != null) {
+        final int index = i;
+
+        pendingActions.add(new PlayerEntry.Action() {
+          @Override
+          public void run(ProcessingExoPlayer player) {
+            result.complete(index, key, player != null);
+          }
+        });
+
+        continue;
+      }
+
+      // Complete operations which return without invoking callback (e.g. play of playing player)
+      result.complete(i, key, true);
+    }
+  }
+
+  /**
+   * Check if a prepared or suspended player or an effect exists for key
+   *
+   * @param key
+   * @return
+   */
+  private boolean hasPlayer(final Integer key) {
+    PlayerEntry entry = this.playerRegistry.get(key);
+
+    return this.getReadyPlayer(key) != null || (entry != null && entry.isSuspended()) || this.isEffect(key);
+  }
+
+  /**
+   * Set maximum count of idle players kept for reuse, least recently used players above it are released
+   *
+   * @param size
+   */
+  @ReactMethod
+  public void setPlayerPoolSize(final Integer size) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setPlayerPoolSizeOnAudioThread(size);
+      }
+    });
+  }
+
+  void setPlayerPoolSizeOnAudioThread(final Integer size) {
+    this.exoPlayerPool.setMaxSize(size);
+  }
+
+  /**
+   * Get hit and miss statistics of the pool of idle players
+   *
+   * @param callback
+   */
+  @ReactMethod
+  public void getPlayerPoolStats(final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        getPlayerPoolStatsOnAudioThread(callback);
+      }
+    });
+  }
+
+  void getPlayerPoolStatsOnAudioThread(final Callback callback) {
+    long hits = this.exoPlayerPool.getHits();
+    long misses = this.exoPlayerPool.getMisses();
+
+    WritableMap stats = Arguments.createMap();
+    stats.putInt("size", this.exoPlayerPool.size());
+    stats.putInt("maxSize", this.exoPlayerPool.getMaxSize());
+    stats.putDouble("hits", hits);
+    stats.putDouble("misses", misses);
+    stats.putDouble("hitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0);
+    stats.putDouble("reclaimed", this.exoPlayerPool.getReclaimed());
+
+    callback.invoke(stats);
+  }
+
+  /**
+   * Get memory of buffered media per buffer profile of the prepared players
+   *
+   * @param callback
+   */
+  @ReactMethod
+  public void getBufferUsage(final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        getBufferUsageOnAudioThread(callback);
+      }
+    });
+  }
+
+  void getBufferUsageOnAudioThread(final Callback callback) {
+    Map<String, int[]> usage = new HashMap<>();
+
+    for (int key : this.playerRegistry.keys()) {
+      PlayerEntry entry = this.playerRegistry.get(key);
+
+      if (entry == null || entry.player == null) {
+        continue;
+      }
+
+      ProfileLoadControl loadControl = entry.player.getLoadControl();
+      String name = loadControl.getProfile().name;
+      int[] values = usage.get(name);
+
+      if (values == null) {
+        values = new int[3];
+        usage.put(name, values);
+      }
+
+      values[0]++;
+      values[1] += loadControl.getBytesAllocated();
+      values[2] += loadControl.getPeakBytesAllocated();
     }
 
-    // Release player
-    player.release();
-    this.playerPool.remove(key);
-    this.playerEventListenerPool.remove(key);
+    WritableMap profiles = Arguments.createMap();
+    for (Map.Entry<String, int[]> entry : usage.entrySet()) {
+      WritableMap profile = Arguments.createMap();
+      profile.putInt("players", entry.getValue()[0]);
+      profile.putDouble("bytesAllocated", entry.getValue()[1]);
+      profile.putDouble("peakBytesAllocated", entry.getValue()[2]);
 
-    // Release audio focus in Android system
-    if (!this.mixWithOthers && key == this.focusedPlayerKey) {
-      AudioManager audioManager = (AudioManager) this.context.getSystemService(Context.AUDIO_SERVICE);
-      audioManager.abandonAudioFocus(this);
+      profiles.putMap(entry.getKey(), profile);
     }
+
+    callback.invoke(profiles);
   }
 
   /**
-   * Set volume of audio playback
+   * Set ceilings of buffered media of players, which are enforced across all players
    *
-   * @param key
-   * @param volume
+   * @param options maxBytes of all players together and maxPlayerBytes of each player, -1 for no ceiling
    */
   @ReactMethod
-  public void setVolume(final Integer key, final Float volume) {
-    // Get player from pool
-    SimpleExoPlayer player = this.playerPool.get(key);
+  public void setMemoryLimits(final ReadableMap options) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setMemoryLimitsOnAudioThread(options);
+      }
+    });
+  }
 
-    if (player == null) {
-      return;
+  void setMemoryLimitsOnAudioThread(final ReadableMap options) {
+    int maxBytes = this.memoryBudget.getMaxBytes();
+    int maxPlayerBytes = this.memoryBudget.getMaxPlayerBytes();
+
+    if (options.hasKey("maxBytes")) {
+      maxBytes = options.getInt("maxBytes") < 0 ? C.LENGTH_UNSET : options.getInt("maxBytes");
+    }
+    if (options.hasKey("maxPlayerBytes")) {
+      maxPlayerBytes = options.getInt("maxPlayerBytes") < 0 ? C.LENGTH_UNSET : options.getInt("maxPlayerBytes");
     }
 
-    player.setVolume(volume);
+    this.memoryBudget.setLimits(maxBytes, maxPlayerBytes);
   }
 
   /**
-   * Get volume of system audio (STREAM_MUSIC)
+   * Get current memory of buffered media of players and of decoded effects
    *
    * @param callback
    */
   @ReactMethod
-  public void getSystemVolume(final Callback callback) {
-    if (callback == null) {
-      return;
-    }
+  public void getMemoryUsage(final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        getMemoryUsageOnAudioThread(callback);
+      }
+    });
+  }
 
-    try {
-      AudioManager audioManager = (AudioManager) this.context.getSystemService(Context.AUDIO_SERVICE);
+  void getMemoryUsageOnAudioThread(final Callback callback) {
+    int players = this.memoryBudget.getBytesAllocated();
+    long effects = this.pcmCache.getTotalSizeInBytes();
 
-      callback.invoke(NULL, (float) audioManager.getStreamVolume(AudioManager.STREAM_MUSIC) / audioManager.getStreamMaxVolume(AudioManager.STREAM_MUSIC));
-    }
-    catch (Exception error) {
-      WritableMap e = Arguments.createMap();
-      e.putInt("code", -1);
-      e.putString("message", error.getMessage());
+    WritableMap usage = Arguments.createMap();
+    usage.putDouble("players", players);
+    usage.putDouble("streaming", this.memoryBudget.getSharedBytesAllocated());
+    usage.putDouble("effects", effects);
+    usage.putDouble("total", players + effects);
+    usage.putDouble("maxBytes", this.memoryBudget.getMaxBytes());
+    usage.putDouble("maxPlayerBytes", this.memoryBudget.getMaxPlayerBytes());
 
-      callback.invoke(e);
-    }
+    callback.invoke(usage);
   }
 
   /**
-   * Get volume of system audio (STREAM_MUSIC)
+   * Analyze audio of player and send RMS, peak and optional spectrum as RNSound-tap event
    *
-   * @param value
+   * @param key
+   * @param options interval in milliseconds between two events and fftSize (power of two, 0 without spectrum)
    */
   @ReactMethod
-  public void setSystemVolume(final Float value) {
-    AudioManager audioManager = (AudioManager) this.context.getSystemService(Context.AUDIO_SERVICE);
+  public void setTap(final Integer key, final ReadableMap options) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setTapOnAudioThread(key, options);
+      }
+    });
+  }
 
-    int volume = Math.round(audioManager.getStreamMaxVolume(AudioManager.STREAM_MUSIC) * value);
-    audioManager.setStreamVolume(AudioManager.STREAM_MUSIC, volume, 0);
+  void setTapOnAudioThread(final Integer key, final ReadableMap options) {
+    int intervalMs = options.hasKey("interval") ? options.getInt("interval") : AudioTap.DEFAULT_INTERVAL_MS;
+    int fftSize = options.hasKey("fftSize") ? options.getInt("fftSize") : 0;
+    final AudioTap tap = new AudioTap(intervalMs, fftSize);
+
+    this.audioTaps.put(key, tap);
+    this.attachTap(key, tap);
+
+    // Send results of tap until it is replaced or removed
+    this.audioHandler.postDelayed(new Runnable() {
+      @Override
+      public void run() {
+        if (audioTaps.get(key) != tap) {
+          return;
+        }
+
+        sendTapEvent(key, tap);
+        audioHandler.postDelayed(this, tap.intervalMs);
+      }
+    }, tap.intervalMs);
   }
 
   /**
-   * Set if audio playback should be looping
+   * Stop analysis of audio of player
    *
    * @param key
-   * @param shouldLooping
    */
   @ReactMethod
-  public void setLooping(final Integer key, final Boolean shouldLooping) {
-    // Get player eventListener from pool
-    ExoPlayerEventListener eventListener = this.playerEventListenerPool.get(key);
+  public void removeTap(final Integer key) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        removeTapOnAudioThread(key);
+      }
+    });
+  }
 
-    if (eventListener == null) {
+  void removeTapOnAudioThread(final Integer key) {
+    if (this.audioTaps.get(key) == null) {
       return;
     }
 
-    // Set looping
-    eventListener.setLooping(shouldLooping);
+    this.audioTaps.remove(key);
+    this.attachTap(key, null);
   }
 
   /**
-   * Set speed of audio playback
+   * Set tap of effect voice or player of key
    *
    * @param key
-   * @param speed
+   * @param tap AudioTap or null
    */
-  @ReactMethod
-  public void setSpeed(final Integer key, final Float speed) {
-    // Get player from pool
-    SimpleExoPlayer player = this.playerPool.get(key);
+  private void attachTap(final Integer key, final AudioTap tap) {
+    if (this.isEffect(key)) {
+      this.soundMixer.setTap(key, tap);
 
-    if (player == null) {
       return;
     }
 
-    // Set playback speed
-    player.setPlaybackParameters(new PlaybackParameters(speed, 1));
+    PlayerEntry entry = this.playerRegistry.get(key);
+
+    if (entry != null && entry.player != null) {
+      entry.player.getGainAudioProcessor().setTap(tap);
+    }
   }
 
   /**
-   * Set current time of audio playback position
+   * Send RMS, peak and spectrum of samples since last event, spectrum is sent as base64 string of bytes
+   *
    * @param key
-   * @param sec Seconds from start
+   * @param tap
    */
-  @ReactMethod
-  public void setCurrentTime(final Integer key, final Float sec) {
-    // Get player from pool
-    SimpleExoPlayer player = this.playerPool.get(key);
-
-    if (player == null) {
+  private void sendTapEvent(final Integer key, final AudioTap tap) {
+    if (!tap.read()) {
       return;
     }
 
-    // Seek to position
-    player.seekTo((long) Math.floor(sec * 1000));
+    WritableMap data = Arguments.createMap();
+    data.putDouble("rms", tap.getRms());
+    data.putDouble("peak", tap.getPeak());
+    data.putInt("sampleRate", tap.getSampleRate());
+
+    if (tap.fftSize > 0) {
+      data.putString("spectrum", Base64.encodeToString(tap.getSpectrum(), Base64.NO_WRAP));
+    }
+
+    this.sendEvent("RNSound-tap", key, data);
   }
 
   /**
-   * Get current time of audio playback position
+   * Set interval of progress events of player
    *
    * @param key
-   * @param callback
+   * @param intervalMs
    */
   @ReactMethod
-  public void getCurrentTime(final Integer key, final Callback callback) {
-    // Get player from pool
-    SimpleExoPlayer player = this.playerPool.get(key);
+  public void setProgressInterval(final Integer key, final Integer intervalMs) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setProgressIntervalOnAudioThread(key, intervalMs);
+      }
+    });
+  }
 
-    if (player == null) {
-      callback.invoke(-1, false);
+  void setProgressIntervalOnAudioThread(final Integer key, final Integer intervalMs) {
+    this.progressTicker.setInterval(key, intervalMs);
+  }
 
-      return;
+  /**
+   * Set options of event queue: throttle (minimum milliseconds between two sends of queued events)
+   * and capacity (maximum count of queued events, oldest events are dropped above it)
+   *
+   * @param options
+   */
+  @ReactMethod
+  public void setEventOptions(final ReadableMap options) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setEventOptionsOnAudioThread(options);
+      }
+    });
+  }
+
+  void setEventOptionsOnAudioThread(final ReadableMap options) {
+    if (options.hasKey("throttle")) {
+      this.eventDispatcher.setThrottle(options.getInt("throttle"));
+    }
+    if (options.hasKey("capacity")) {
+      this.eventDispatcher.setCapacity(options.getInt("capacity"));
     }
+  }
 
-    // Return position in seconds and isPlaying status
-    Long positionInMs = player.getCurrentPosition();
-    callback.invoke((positionInMs * .001), player.getPlayWhenReady());
+  /**
+   * Enable or disable collection of metrics, metrics are disabled by default
+   *
+   * @param enabled
+   */
+  @ReactMethod
+  public void setMetricsEnabled(final Boolean enabled) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        setMetricsEnabledOnAudioThread(enabled);
+      }
+    });
+  }
+
+  void setMetricsEnabledOnAudioThread(final Boolean enabled) {
+    this.playbackMetrics.setEnabled(enabled);
   }
 
   /**
-   * Set speaker of Android phone on or off for audio playback
-   * @param key
-   * @param speaker
+   * Get collected metrics and current count of players, listeners and effects
+   *
+   * @param callback
    */
   @ReactMethod
-  public void setSpeakerphoneOn(final Integer key, final Boolean speaker) {
-    // Get player from pool
-    SimpleExoPlayer player = this.playerPool.get(key);
+  public void getMetrics(final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        getMetricsOnAudioThread(callback);
+      }
+    });
+  }
 
-    if (player == null) {
-      return;
+  void getMetricsOnAudioThread(final Callback callback) {
+    WritableMap metrics = this.playbackMetrics.toWritableMap();
+    int readyPlayers = 0;
+    int suspendedPlayers = 0;
+    for (int key : this.playerRegistry.keys()) {
+      PlayerEntry entry = this.playerRegistry.get(key);
+
+      if (this.getReadyPlayer(key) != null) {
+        readyPlayers++;
+      }
+      else if (entry != null && entry.isSuspended()) {
+        suspendedPlayers++;
+      }
     }
 
-    // Set playback to speakers
-    player.setAudioStreamType(AudioManager.STREAM_MUSIC); // Speakers possible for STREAM_MUSIC only
-    AudioManager audioManager = (AudioManager) this.context.getSystemService(this.context.AUDIO_SERVICE);
-    audioManager.setMode(AudioManager.MODE_IN_COMMUNICATION);
-    audioManager.setSpeakerphoneOn(speaker);
+    metrics.putInt("livePlayers", readyPlayers);
+    metrics.putInt("liveListeners", this.playerRegistry.size());
+    metrics.putInt("idlePlayers", this.exoPlayerPool.size());
+    metrics.putInt("suspendedPlayers", suspendedPlayers);
+    metrics.putDouble("suspensions", this.suspensions);
+    metrics.putDouble("rehydrations", this.rehydrations);
+    metrics.putDouble("coalescedPrepares", this.coalescedPrepares);
+    metrics.putInt("liveEffects", this.soundMixer != null ? this.soundMixer.getVoiceCount() : 0);
+    metrics.putDouble("droppedEvents", this.eventDispatcher.getDropped());
+
+    callback.invoke(metrics);
   }
 
   /**
-   * Set category and mixWithOthers to module, but use only for new players in prepare()
+   * Reset collected metrics
+   */
+  @ReactMethod
+  public void resetMetrics() {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        resetMetricsOnAudioThread();
+      }
+    });
+  }
+
+  void resetMetricsOnAudioThread() {
+    this.playbackMetrics.reset();
+  }
+
+  /**
+   * Get measured latencies from play() to audible output of ExoPlayer and effect playback
    *
-   * @param category
-   * @param mixWithOthers
+   * @param callback
    */
   @ReactMethod
-  public void setCategory(final String category, final Boolean mixWithOthers) {
-    this.category = category;
-    this.mixWithOthers = mixWithOthers;
+  public void getLatencyStats(final Callback callback) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        getLatencyStatsOnAudioThread(callback);
+      }
+    });
+  }
+
+  void getLatencyStatsOnAudioThread(final Callback callback) {
+    WritableMap stats = Arguments.createMap();
+    stats.putMap("exoPlayer", this.latencyStatsToMap(this.exoPlayerLatencyStats));
+
+    if (this.soundMixer != null) {
+      stats.putMap("effect", this.latencyStatsToMap(this.soundMixer.getLatencyStats()));
+    }
+    else {
+      stats.putMap("effect", this.latencyStatsToMap(new LatencyStats()));
+    }
+
+    callback.invoke(stats);
+  }
+
+  private WritableMap latencyStatsToMap(LatencyStats latencyStats) {
+    WritableMap map = Arguments.createMap();
+    map.putDouble("count", latencyStats.getCount());
+    map.putDouble("min", latencyStats.getMinMs());
+    map.putDouble("average", latencyStats.getAverageMs());
+    map.putDouble("max", latencyStats.getMaxMs());
+
+    return map;
+  }
+
+  /**
+   * Measure time until playback position of player starts to advance, which is driven by
+   * the playback head of its AudioTrack
+   *
+   * @param player
+   * @param handler
+   */
+  private void measureStartLatency(final ProcessingExoPlayer player, final Handler handler) {
+    final long startPositionInMs = player.getCurrentPosition();
+    final long requestNanos = System.nanoTime();
+
+    handler.post(new Runnable() {
+      @Override
+      public void run() {
+        if (!player.getPlayWhenReady()) {
+          return;
+        }
+
+        double latencyMs = (System.nanoTime() - requestNanos) / 1000000.0;
+
+        if (player.getCurrentPosition() != startPositionInMs) {
+          exoPlayerLatencyStats.record(latencyMs);
+          playbackMetrics.recordFirstAudio(latencyMs);
+        }
+        else if (latencyMs < 2000) {
+          handler.postDelayed(this, 2);
+        }
+      }
+    });
   }
 
   /**
@@ -535,76 +3142,164 @@ public class RNSoundModule extends ReactContextBaseJavaModule implements AudioMa
    * @param focusChange
    */
   @Override
-  public void onAudioFocusChange(int focusChange) {
-    if (!this.mixWithOthers) {
-      // Get player from pool
-      SimpleExoPlayer player = this.playerPool.get(this.focusedPlayerKey);
+  public void onAudioFocusChange(final int focusChange) {
+    this.audioHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        onAudioFocusChangeOnAudioThread(focusChange);
+      }
+    });
+  }
 
-      if (player == null) {
-        return;
+  void onAudioFocusChangeOnAudioThread(int focusChange) {
+    if (focusChange == AudioManager.AUDIOFOCUS_LOSS_TRANSIENT_CAN_DUCK && this.duckOnTransientLoss) {
+      // Another app plays shortly at the same time, lower volume of all players
+      this.systemDucked = true;
+      this.applyDuckVolumeToAll();
+    }
+    else if (focusChange == AudioManager.AUDIOFOCUS_LOSS_TRANSIENT || focusChange == AudioManager.AUDIOFOCUS_LOSS_TRANSIENT_CAN_DUCK) {
+      // Another app plays shortly, pause all players and effects and continue them on regain of focus
+      for (int key : this.getPlayingKeys()) {
+        this.pauseForFocus(key);
+        this.transientPausedKeys.add(key);
+      }
+    }
+    else if (focusChange == AudioManager.AUDIOFOCUS_LOSS) {
+      // Another app plays for unknown time, pause all players and effects without continuing them and
+      // give up focus
+      for (int key : this.getPlayingKeys()) {
+        this.pauseForFocus(key);
       }
 
-      // Change playback state based on focus change of audio playback
-      if (focusChange == AudioManager.AUDIOFOCUS_LOSS || focusChange == AudioManager.AUDIOFOCUS_LOSS_TRANSIENT || focusChange == AudioManager.AUDIOFOCUS_LOSS_TRANSIENT_CAN_DUCK) {
-        this.wasPlayingBeforeFocusChange = player.getPlayWhenReady();
+      this.focusedPlayerKey = null;
+      this.focusDuckedKeys.clear();
+      this.focusPausedKeys.clear();
+      this.transientPausedKeys.clear();
+      this.systemDucked = false;
+      this.applyDuckVolumeToAll();
 
-        if (this.wasPlayingBeforeFocusChange) {
-          this.pause(this.focusedPlayerKey, null);
+      AudioManager audioManager = (AudioManager) this.context.getSystemService(Context.AUDIO_SERVICE);
+      audioManager.abandonAudioFocus(this);
+      this.hasAudioFocus = false;
+    }
+    else if (focusChange == AudioManager.AUDIOFOCUS_GAIN) {
+      this.systemDucked = false;
+      this.applyDuckVolumeToAll();
+
+      // Continue players and effects paused by transient loss
+      List<Integer> pausedKeys = new ArrayList<>(this.transientPausedKeys);
+      this.transientPausedKeys.clear();
+      for (Integer pausedKey : pausedKeys) {
+        ProcessingExoPlayer player = this.getReadyPlayer(pausedKey);
+
+        if (this.isEffect(pausedKey)) {
+          this.playOnAudioThread(pausedKey, null);
         }
-      }
-      else { // Regain focus
-        if (this.wasPlayingBeforeFocusChange) {
-          this.play(this.focusedPlayerKey, null);
-          this.wasPlayingBeforeFocusChange = false;
+        else if (player != null) {
+          this.startPlayer(pausedKey, player, null);
         }
       }
     }
   }
 
-  private void updateProgress(final Integer key, final Handler handler) {
-    // Get player from pool
-    SimpleExoPlayer player = this.playerPool.get(key);
+  private void applyDuckVolumeToAll() {
+    for (int key : this.playerRegistry.keys()) {
+      this.applyDuckVolume(key);
+    }
+    for (int i = 0; i < this.effectFileNames.size(); i++) {
+      this.applyDuckVolume(this.effectFileNames.keyAt(i));
+    }
 
-    if (player == null) {
-      return;
+    if (this.soundMixer != null) {
+      this.soundMixer.setMasterVolume(this.systemDucked ? this.duckVolume : 1f);
     }
+  }
 
-    // Player have to playback audio
-    if (!player.getPlayWhenReady()) {
-      return;
+  /**
+   * Get playback position for progress events via ProgressTicker.Listener
+   *
+   * @param key
+   * @return Position in milliseconds or -1, if player is not playing
+   */
+  @Override
+  public long getPlaybackPosition(int key) {
+    if (this.isEffect(key)) {
+      return this.soundMixer.isPlaying(key) ? this.soundMixer.getPositionMs(key) : -1;
     }
 
-    // Get playback time
-    long positionInMs = player.getCurrentPosition();
-    double positionS = (positionInMs * .001);
+    // Get player from registry
+    ProcessingExoPlayer player = this.getReadyPlayer(key);
 
-    // Send progress event to event emitter
-    WritableMap data = Arguments.createMap();
-    data.putDouble("progress", (positionInMs * .001));
-    this.sendEvent("RNSound-progress", key, data);
+    if (player == null || !player.getPlayWhenReady() || player.getPlaybackState() == ExoPlayer.STATE_ENDED) {
+      return -1;
+    }
 
-    // Calculate delay to next 10 seconds point and postDelayed
-    int delay = (int) Math.round(10000 - (positionInMs % 10000));
+    return player.getCurrentPosition();
+  }
 
-    handler.postDelayed(new Runnable() {
-      @Override
-      public void run() {
-        updateProgress(key, handler);
-      }
-    }, delay);
+  /**
+   * Send progress of all due players of a tick as one RNSound-progress event via
+   * ProgressTicker.Listener
+   *
+   * @param keys
+   * @param positionsInMs
+   * @param count
+   */
+  @Override
+  public void onProgress(int[] keys, long[] positionsInMs, int count) {
+    WritableArray tickKeys = Arguments.createArray();
+    WritableArray progress = Arguments.createArray();
+
+    for (int i = 0; i < count; i++) {
+      tickKeys.pushInt(keys[i]);
+      progress.pushDouble(positionsInMs[i] * .001);
+    }
+
+    WritableMap data = Arguments.createMap();
+    data.putArray("keys", tickKeys);
+    data.putArray("progress", progress);
+    this.eventDispatcher.enqueue("RNSound-progress", data);
+  }
+
+  /**
+   * Send playing state event to JavaScript code
+   *
+   * @param key
+   * @param isPlaying
+   * @param positionInMs
+   */
+  void sendPlayingEvent(Integer key, boolean isPlaying, long positionInMs) {
+    WritableMap data = Arguments.createMap();
+    data.putBoolean("isPlaying", isPlaying);
+    data.putDouble("currentTime", Math.floor(positionInMs * .001));
+    this.sendEvent("RNSound-playing", key, data);
   }
 
   /**
-   * Send event to JavaScript code via context
+   * Queue event for JavaScript code, queued events are sent once per frame
    *
    * @param eventName
    * @param params
    */
   public void sendEvent(String eventName, Integer key, @Nullable WritableMap params) {
+    if (params == null) {
+      params = Arguments.createMap();
+    }
+
     params.putInt("key", key);
+    this.eventDispatcher.enqueue(eventName, params);
+  }
 
+  /**
+   * Send all queued events of one name to JavaScript code via EventDispatcher.Emitter
+   *
+   * @param eventName
+   * @param events
+   */
+  @Override
+  public void emit(String eventName, WritableArray events) {
     this.context
             .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
-            .emit(eventName, params);
+            .emit(eventName, events);
   }
 }
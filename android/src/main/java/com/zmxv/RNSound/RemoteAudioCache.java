@@ -0,0 +1,138 @@
+package com.zmxv.RNSound;
+
+import android.net.Uri;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.FileDataSourceFactory;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSinkFactory;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSourceFactory;
+import com.google.android.exoplayer2.upstream.cache.LeastRecentlyUsedCacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+
+import java.io.File;
+
+/**
+ * Disk cache of remote HTTP audio sources with a size cap and least recently used eviction. There is
+ * one cache per process: SimpleCache must not share its directory with another instance, so module
+ * instances created by a reload of JS reuse the cache of the first one.
+ */
+public class RemoteAudioCache implements CacheDataSource.EventListener {
+  static final long DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
+  static final long MAX_CACHE_FILE_BYTES = 2 * 1024 * 1024;
+
+  private static RemoteAudioCache instance;
+
+  private final SimpleCache cache;
+  private final long maxBytes;
+
+  private long hits = 0;
+  private long misses = 0;
+  private long bytesSaved = 0;
+
+  /**
+   * Get cache of process, create it in directory on first use. SimpleCache stores its index in
+   * this directory, so cached content survives app restarts unless persistent is false. Settings
+   * only apply to the first call.
+   *
+   * @param directory
+   * @param maxBytes
+   * @param persistent Keep cached content of previous app sessions
+   * @return Cache of process
+   */
+  public static synchronized RemoteAudioCache getInstance(File directory, long maxBytes, boolean persistent) {
+    if (instance == null) {
+      instance = new RemoteAudioCache(directory, maxBytes, persistent);
+    }
+
+    return instance;
+  }
+
+  /**
+   * Check if cache of process was created, e.g. by a module instance before a reload of JS
+   *
+   * @return Whether cache exists
+   */
+  public static synchronized boolean hasInstance() {
+    return instance != null;
+  }
+
+  private RemoteAudioCache(File directory, long maxBytes, boolean persistent) {
+    if (!persistent) {
+      deleteContents(directory);
+    }
+
+    this.maxBytes = maxBytes;
+    this.cache = new SimpleCache(directory, new LeastRecentlyUsedCacheEvictor(maxBytes));
+  }
+
+  /**
+   * Create data source factory, which reads from cache and loads missing data from upstream into cache
+   *
+   * @param upstreamFactory
+   * @return Data source factory
+   */
+  public DataSource.Factory createDataSourceFactory(DataSource.Factory upstreamFactory) {
+    return new CacheDataSourceFactory(this.cache, upstreamFactory, new FileDataSourceFactory(),
+            new CacheDataSinkFactory(this.cache, MAX_CACHE_FILE_BYTES), CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR, this);
+  }
+
+  /**
+   * Count request of uri as hit, if it is cached completely, or as miss
+   *
+   * @param uri
+   */
+  public synchronized void recordRequest(Uri uri) {
+    String key = uri.toString();
+    long contentLength = this.cache.getContentLength(key);
+
+    if (contentLength != C.LENGTH_UNSET && this.cache.isCached(key, 0, contentLength)) {
+      this.hits++;
+    }
+    else {
+      this.misses++;
+    }
+  }
+
+  @Override
+  public synchronized void onCachedBytesRead(long cacheSizeBytes, long cachedBytesRead) {
+    this.bytesSaved += cachedBytesRead;
+  }
+
+  public synchronized long getHits() {
+    return this.hits;
+  }
+
+  public synchronized long getMisses() {
+    return this.misses;
+  }
+
+  public synchronized long getBytesSaved() {
+    return this.bytesSaved;
+  }
+
+  public long getMaxBytes() {
+    return this.maxBytes;
+  }
+
+  public long getSizeInBytes() {
+    return this.cache.getCacheSpace();
+  }
+
+  private static void deleteContents(File directory) {
+    File[] files = directory.listFiles();
+
+    if (files == null) {
+      return;
+    }
+
+    for (File file : files) {
+      if (file.isDirectory()) {
+        deleteContents(file);
+      }
+
+      file.delete();
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package com.zmxv.RNSound;
+
+import android.util.SparseArray;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.LinkedList;
+import java.util.ListIterator;
+
+/**
+ * Callbacks of scheduled starts of effects by key in the same order as the starts in SoundMixer.
+ * Only used on the audio thread of RNSoundModule, to which starts of the mixer thread are posted.
+ */
+public class ScheduledStarts {
+  private static class Start {
+    final long hostNanos;
+    final Callback callback;
+
+    Start(long hostNanos, Callback callback) {
+      this.hostNanos = hostNanos;
+      this.callback = callback;
+    }
+  }
+
+  private final SparseArray<LinkedList<Start>> starts = new SparseArray<>();
+
+  /**
+   * Add callback of start, after callbacks of starts of same or earlier time
+   *
+   * @param key
+   * @param hostNanos
+   * @param callback
+   */
+  public void add(int key, long hostNanos, Callback callback) {
+    LinkedList<Start> keyStarts = this.starts.get(key);
+
+    if (keyStarts == null) {
+      keyStarts = new LinkedList<>();
+      this.starts.put(key, keyStarts);
+    }
+
+    ListIterator<Start> iterator = keyStarts.listIterator(keyStarts.size());
+    while (iterator.hasPrevious()) {
+      if (iterator.previous().hostNanos <= hostNanos) {
+        iterator.next();
+        break;
+      }
+    }
+    iterator.add(new Start(hostNanos, callback));
+  }
+
+  /**
+   * Invoke callback of earliest start of key with the scheduled and actual start time in milliseconds
+   *
+   * @param key
+   * @param scheduledNanos
+   * @param startNanos
+   */
+  public void started(int key, long scheduledNanos, long startNanos) {
+    LinkedList<Start> keyStarts = this.starts.get(key);
+
+    if (keyStarts == null || keyStarts.isEmpty()) {
+      return;
+    }
+
+    Start start = keyStarts.removeFirst();
+
+    if (start.callback != null) {
+      WritableMap props = Arguments.createMap();
+      props.putDouble("scheduledTime", scheduledNanos / 1000000.0);
+      props.putDouble("startTime", startNanos / 1000000.0);
+
+      start.callback.invoke(RNSoundModule.NULL, props);
+    }
+  }
+
+  /**
+   * Remove one start, which SoundMixer did not accept, and invoke its callback with an error. The
+   * other pending starts of key stay scheduled.
+   *
+   * @param key
+   * @param hostNanos
+   * @param callback Callback the start was added with
+   */
+  public void remove(int key, long hostNanos, Callback callback) {
+    LinkedList<Start> keyStarts = this.starts.get(key);
+
+    if (keyStarts == null) {
+      return;
+    }
+
+    // Search from the end, where the latest start of the same time was added
+    ListIterator<Start> iterator = keyStarts.listIterator(keyStarts.size());
+    while (iterator.hasPrevious()) {
+      Start start = iterator.previous();
+
+      if (start.hostNanos == hostNanos && start.callback == callback) {
+        iterator.remove();
+        fail(start, "scheduled start rejected");
+
+        break;
+      }
+    }
+
+    if (keyStarts.isEmpty()) {
+      this.starts.remove(key);
+    }
+  }
+
+  /**
+   * Invoke callbacks of all pending starts of key with an error
+   *
+   * @param key
+   */
+  public void cancel(int key) {
+    LinkedList<Start> keyStarts = this.starts.get(key);
+    this.starts.remove(key);
+
+    if (keyStarts == null) {
+      return;
+    }
+
+    for (Start start : keyStarts) {
+      fail(start, "scheduled start cancelled");
+    }
+  }
+
+  private static void fail(Start start, String message) {
+    if (start.callback != null) {
+      WritableMap e = Arguments.createMap();
+      e.putInt("code", -1);
+      e.putString("message", message);
+
+      start.callback.invoke(e, RNSoundModule.NULL);
+    }
+  }
+}
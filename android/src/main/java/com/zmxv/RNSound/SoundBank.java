@@ -0,0 +1,173 @@
+package com.zmxv.RNSound;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Manifest of sounds which are prepared together with bounded concurrency in order of priority.
+ * Only used on the audio thread of RNSoundModule.
+ */
+public class SoundBank {
+  static final int DEFAULT_CONCURRENCY = 4;
+
+  /**
+   * Sound of manifest
+   */
+  static class Item {
+    final String fileName;
+    final int key;
+    final ReadableMap options;
+    final int priority;
+
+    // Generation of the prepare of key started by the bank
+    int generation;
+
+    WritableMap result;
+
+    Item(String fileName, int key, ReadableMap options, int priority) {
+      this.fileName = fileName;
+      this.key = key;
+      this.options = options;
+      this.priority = priority;
+    }
+  }
+
+  final String id;
+  final int concurrency;
+  final Callback callback;
+
+  // Items in order of manifest and in order of preparation
+  private final List<Item> items = new ArrayList<>();
+  private final List<Item> queue;
+  private int next = 0;
+  private int inFlight = 0;
+  private int loaded = 0;
+  private int failed = 0;
+  private boolean unloaded = false;
+
+  /**
+   * Create bank of manifest
+   *
+   * @param id
+   * @param sounds Array of fileName, key, optional options and optional priority (higher first)
+   * @param concurrency Maximum count of sounds which are prepared at the same time
+   * @param callback Invoked once when all sounds are prepared or bank is unloaded
+   */
+  public SoundBank(String id, ReadableArray sounds, int concurrency, Callback callback) {
+    this.id = id;
+    this.concurrency = Math.max(1, concurrency);
+    this.callback = callback;
+
+    for (int i = 0; i < sounds.size(); i++) {
+      ReadableMap sound = sounds.getMap(i);
+
+      this.items.add(new Item(
+              sound.getString("fileName"),
+              sound.getInt("key"),
+              sound.hasKey("options") ? sound.getMap("options") : Arguments.createMap(),
+              sound.hasKey("priority") ? sound.getInt("priority") : 0));
+    }
+
+    // Stable sort keeps order of manifest within same priority
+    this.queue = new ArrayList<>(this.items);
+    Collections.sort(this.queue, new Comparator<Item>() {
+      @Override
+      public int compare(Item a, Item b) {
+        return b.priority - a.priority;
+      }
+    });
+  }
+
+  /**
+   * Get next item to prepare, if concurrency allows it
+   *
+   * @return Item or null
+   */
+  public Item next() {
+    if (this.unloaded || this.next >= this.queue.size() || this.inFlight >= this.concurrency) {
+      return null;
+    }
+
+    this.inFlight++;
+
+    return this.queue.get(this.next++);
+  }
+
+  /**
+   * Store result of prepared item
+   *
+   * @param item
+   * @param result Map with key, success and error or props
+   */
+  public void complete(Item item, WritableMap result) {
+    this.inFlight--;
+    item.result = result;
+
+    if (result.getBoolean("success")) {
+      this.loaded++;
+    }
+    else {
+      this.failed++;
+    }
+  }
+
+  public boolean isDone() {
+    return this.loaded + this.failed == this.items.size();
+  }
+
+  public int getLoaded() {
+    return this.loaded;
+  }
+
+  public int getFailed() {
+    return this.failed;
+  }
+
+  public int getTotal() {
+    return this.items.size();
+  }
+
+  public boolean isUnloaded() {
+    return this.unloaded;
+  }
+
+  /**
+   * Stop preparation of remaining items
+   *
+   * @return Keys of all items of bank
+   */
+  public int[] unload() {
+    this.unloaded = true;
+
+    int[] keys = new int[this.items.size()];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = this.items.get(i).key;
+    }
+
+    return keys;
+  }
+
+  /**
+   * Get results of all items in order of manifest
+   *
+   * @return Array of result maps
+   */
+  public WritableArray getResults() {
+    WritableArray results = Arguments.createArray();
+
+    for (Item item : this.items) {
+      results.pushMap(item.result);
+    }
+
+    return results;
+  }
+}
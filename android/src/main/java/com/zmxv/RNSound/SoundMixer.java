@@ -0,0 +1,881 @@
+package com.zmxv.RNSound;
+
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTimestamp;
+import android.media.AudioTrack;
+import android.os.Build;
+import android.os.Process;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Low latency playback of decoded clips: all playing voices are mixed into one
+ * streaming AudioTrack on a dedicated audio thread
+ */
+public class SoundMixer implements Runnable {
+  static final int MAX_VOICES = 32;
+  static final int DEFAULT_FRAMES_PER_BUFFER = 256;
+  static final int MAX_PENDING_STARTS = 16;
+
+  /**
+   * Listener for voice state changes, called on the mixer thread outside of its lock. Implementations
+   * must return quickly and hand work over to their own thread.
+   */
+  public interface Listener {
+    void onVoiceEnded(int key, long positionMs);
+
+    void onVoiceStarted(int key, long scheduledNanos, long startNanos);
+  }
+
+  /**
+   * Playback state of one prepared clip
+   */
+  static class Voice {
+    final int key;
+    PcmClip clip;
+
+    // Speed at which clip was pre-rendered, positions are reported in time of source clip
+    float clipSpeed = 1;
+
+    // Playback rate of clip, interpolated in real time if not 1
+    float rate = 1;
+    float fraction = 0;
+
+    int position = 0;
+    float volume = 1;
+    float appliedVolume = 1;
+
+    // Factor of volume while another sound of the app holds audio focus
+    float duckVolume = 1;
+    float appliedDuckVolume = 1;
+    float pan = 0;
+    int loops = 0;
+
+    // Repetitions left of current playback, reset from loops whenever playback starts at the beginning
+    int remainingLoops = 0;
+    int delayFrames = 0;
+    boolean playing = false;
+    long playRequestNanos = 0;
+
+    // Scheduled starts in System.nanoTime() in ascending order, voice is silent while waiting for first one
+    final long[] pendingStarts = new long[MAX_PENDING_STARTS];
+    int pendingCount = 0;
+    boolean waiting = false;
+
+    // Fade from appliedVolume at start of fade to volume
+    float fadeFrom;
+    int fadeCurve;
+    int fadeFrames = 0;
+    int fadeElapsedFrames;
+    Fade.Listener fadeListener;
+
+    // Optional tap of output of voice
+    AudioTap tap;
+
+    Voice(int key, PcmClip clip) {
+      this.key = key;
+      this.clip = clip;
+    }
+  }
+
+  private final Object lock = new Object();
+  private final Listener listener;
+  private final int sampleRate;
+  private final int framesPerBuffer;
+  private final LatencyStats latencyStats = new LatencyStats();
+
+  // Volume of output of all voices, e.g. to duck on loss of audio focus
+  private float masterVolume = 1;
+  private float appliedMasterVolume = 1;
+
+  private final Map<Integer, Voice> voices = new HashMap<>();
+  private final Voice[] activeVoices = new Voice[MAX_VOICES];
+  private int activeCount = 0;
+
+  // Preallocated buffers of audio thread
+  private final float[] mixBuffer;
+  private final float[] tapBuffer;
+  private final short[] outputBuffer;
+  private final int[] endedKeys = new int[MAX_VOICES];
+  private final long[] endedPositions = new long[MAX_VOICES];
+  private final int[] startedKeys = new int[MAX_VOICES];
+  private final long[] startedScheduledNanos = new long[MAX_VOICES];
+  private final long[] startedNanos = new long[MAX_VOICES];
+  private int startedCount = 0;
+  private final Fade.Listener[] endedFades = new Fade.Listener[MAX_VOICES];
+  private int endedFadeCount = 0;
+
+  // Frame clock of output: frames written to AudioTrack since it was flushed
+  private long framesWritten = 0;
+  private AudioTimestamp timestamp;
+
+  private AudioTrack track;
+  private Thread thread;
+  private boolean running = false;
+
+  /**
+   * Create mixer with output sample rate and buffer size of device
+   *
+   * @param sampleRate
+   * @param framesPerBuffer
+   * @param listener
+   */
+  public SoundMixer(int sampleRate, int framesPerBuffer, Listener listener) {
+    this.sampleRate = sampleRate;
+    this.framesPerBuffer = framesPerBuffer > 0 ? framesPerBuffer : DEFAULT_FRAMES_PER_BUFFER;
+    this.listener = listener;
+    this.mixBuffer = new float[this.framesPerBuffer * 2];
+    this.tapBuffer = new float[this.framesPerBuffer];
+    this.outputBuffer = new short[this.framesPerBuffer * 2];
+  }
+
+  public int getSampleRate() {
+    return this.sampleRate;
+  }
+
+  public LatencyStats getLatencyStats() {
+    return this.latencyStats;
+  }
+
+  /**
+   * Register clip for key
+   *
+   * @param key
+   * @param clip
+   */
+  public void addVoice(int key, PcmClip clip) {
+    synchronized (this.lock) {
+      this.removeVoice(key);
+      this.voices.put(key, new Voice(key, clip));
+    }
+  }
+
+  /**
+   * Stop and unregister voice of key
+   *
+   * @param key
+   */
+  public void removeVoice(int key) {
+    Fade.Listener replacedListener = null;
+
+    synchronized (this.lock) {
+      Voice voice = this.voices.remove(key);
+
+      if (voice != null) {
+        this.deactivate(voice);
+        replacedListener = voice.fadeListener;
+      }
+    }
+
+    if (replacedListener != null) {
+      replacedListener.onFadeEnded(false);
+    }
+  }
+
+  public int getVoiceCount() {
+    synchronized (this.lock) {
+      return this.voices.size();
+    }
+  }
+
+  public boolean hasVoice(int key) {
+    synchronized (this.lock) {
+      return this.voices.containsKey(key);
+    }
+  }
+
+  /**
+   * Start playback of voice at its current position
+   *
+   * @param key
+   * @return If voice exists and has been started
+   */
+  public boolean play(int key) {
+    synchronized (this.lock) {
+      return this.activate(key, 0);
+    }
+  }
+
+  /**
+   * Schedule start of voice at a host time. A playing voice continues until then and restarts at
+   * its beginning, the start is reported via Listener.onVoiceStarted().
+   *
+   * @param key
+   * @param hostNanos Time of start in System.nanoTime()
+   * @return If voice exists and start has been scheduled
+   */
+  public boolean schedule(int key, long hostNanos) {
+    synchronized (this.lock) {
+      Voice voice = this.voices.get(key);
+
+      if (voice == null || voice.pendingCount >= MAX_PENDING_STARTS) {
+        return false;
+      }
+
+      // Keep voice silent in active voices until its first start
+      if (!voice.playing) {
+        if (this.activeCount >= MAX_VOICES) {
+          return false;
+        }
+
+        voice.playing = true;
+        voice.waiting = true;
+        voice.delayFrames = 0;
+        voice.playRequestNanos = 0;
+        this.activeVoices[this.activeCount++] = voice;
+
+        this.start();
+        this.lock.notifyAll();
+      }
+
+      // Insert after starts of same or earlier time
+      int i = voice.pendingCount++;
+      while (i > 0 && voice.pendingStarts[i - 1] > hostNanos) {
+        voice.pendingStarts[i] = voice.pendingStarts[i - 1];
+        i--;
+      }
+      voice.pendingStarts[i] = hostNanos;
+
+      return true;
+    }
+  }
+
+  /**
+   * Start playback of several voices in the same mixed buffer, each after its own offset
+   *
+   * @param keys
+   * @param offsetsMs Silence before each voice becomes audible
+   * @return If voice of each key exists and has been started
+   */
+  public boolean[] playTogether(int[] keys, long[] offsetsMs) {
+    boolean[] started = new boolean[keys.length];
+
+    synchronized (this.lock) {
+      for (int i = 0; i < keys.length; i++) {
+        started[i] = this.activate(keys[i], (int) (offsetsMs[i] * this.sampleRate / 1000));
+      }
+    }
+
+    return started;
+  }
+
+  public boolean pause(int key) {
+    synchronized (this.lock) {
+      Voice voice = this.voices.get(key);
+
+      if (voice == null) {
+        return false;
+      }
+
+      this.deactivate(voice);
+
+      return true;
+    }
+  }
+
+  public boolean stop(int key) {
+    synchronized (this.lock) {
+      Voice voice = this.voices.get(key);
+
+      if (voice == null) {
+        return false;
+      }
+
+      this.deactivate(voice);
+      voice.position = 0;
+      voice.remainingLoops = voice.loops;
+      voice.delayFrames = 0;
+
+      return true;
+    }
+  }
+
+  public boolean isPlaying(int key) {
+    synchronized (this.lock) {
+      Voice voice = this.voices.get(key);
+
+      return voice != null && voice.playing;
+    }
+  }
+
+  /**
+   * Set volume of voice, which is reached at the end of the next mixed buffer
+   *
+   * @param key
+   * @param volume
+   */
+  public void setVolume(int key, float volume) {
+    Fade.Listener replacedListener = null;
+
+    synchronized (this.lock) {
+      Voice voice = this.voices.get(key);
+
+      if (voice != null) {
+        replacedListener = voice.fadeListener;
+        voice.fadeListener = null;
+        voice.fadeFrames = 0;
+        voice.volume = volume;
+      }
+    }
+
+    if (replacedListener != null) {
+      replacedListener.onFadeEnded(false);
+    }
+  }
+
+  /**
+   * Fade voice from its current volume to volume, ramped per sample within each mixed buffer.
+   * Volume of a voice which is not playing is set immediately.
+   *
+   * @param key
+   * @param volume
+   * @param durationMs
+   * @param curve Curve constant of Fade
+   * @param listener Optional listener of end of fade
+   * @return If voice exists
+   */
+  public boolean fadeTo(int key, float volume, long durationMs, int curve, Fade.Listener listener) {
+    Fade.Listener replacedListener;
+    boolean playing;
+
+    synchronized (this.lock) {
+      Voice voice = this.voices.get(key);
+
+      if (voice == null) {
+        return false;
+      }
+
+      replacedListener = voice.fadeListener;
+      playing = voice.playing;
+      voice.volume = volume;
+
+      if (playing) {
+        voice.fadeListener = listener;
+        voice.fadeFrom = voice.appliedVolume;
+        voice.fadeCurve = curve;
+        voice.fadeFrames = (int) Math.max(1, durationMs * this.sampleRate / 1000);
+        voice.fadeElapsedFrames = 0;
+      }
+      else {
+        voice.fadeListener = null;
+        voice.fadeFrames = 0;
+        voice.appliedVolume = volume;
+      }
+    }
+
+    if (replacedListener != null) {
+      replacedListener.onFadeEnded(false);
+    }
+    if (!playing && listener != null) {
+      listener.onFadeEnded(true);
+    }
+
+    return true;
+  }
+
+  /**
+   * Set stereo position of voice
+   *
+   * @param key
+   * @param pan From -1 (left) through 1 (right)
+   */
+  public void setPan(int key, float pan) {
+    synchronized (this.lock) {
+      Voice voice = this.voices.get(key);
+
+      if (voice != null) {
+        voice.pan = Math.max(-1, Math.min(1, pan));
+      }
+    }
+  }
+
+  /**
+   * Set tap of output of voice before master volume
+   *
+   * @param key
+   * @param tap AudioTap or null
+   */
+  public void setTap(int key, AudioTap tap) {
+    synchronized (this.lock) {
+      Voice voice = this.voices.get(key);
+
+      if (voice != null) {
+        voice.tap = tap;
+      }
+    }
+  }
+
+  /**
+   * Set volume of output of all voices, which is reached at the end of the next mixed buffer
+   *
+   * @param volume
+   */
+  public void setMasterVolume(float volume) {
+    synchronized (this.lock) {
+      this.masterVolume = volume;
+    }
+  }
+
+  /**
+   * Set factor of volume of voice, while it is ducked by audio focus of another sound. It is reached
+   * at the end of the next mixed buffer and does not interrupt fades.
+   *
+   * @param key
+   * @param volume
+   */
+  public void setDuckVolume(int key, float volume) {
+    synchronized (this.lock) {
+      Voice voice = this.voices.get(key);
+
+      if (voice != null) {
+        voice.duckVolume = volume;
+      }
+    }
+  }
+
+  /**
+   * Set count of repetitions after first playback
+   *
+   * @param key
+   * @param loops Count of repetitions, negative for infinite looping
+   */
+  public void setLoops(int key, int loops) {
+    synchronized (this.lock) {
+      Voice voice = this.voices.get(key);
+
+      if (voice != null) {
+        voice.loops = loops;
+        voice.remainingLoops = loops;
+      }
+    }
+  }
+
+  public long getPositionMs(int key) {
+    synchronized (this.lock) {
+      Voice voice = this.voices.get(key);
+
+      return voice != null ? (long) (voice.position * voice.clipSpeed * 1000 / this.sampleRate) : -1;
+    }
+  }
+
+  public void setPositionMs(int key, long positionMs) {
+    synchronized (this.lock) {
+      Voice voice = this.voices.get(key);
+
+      if (voice != null) {
+        voice.position = (int) Math.min(positionMs * this.sampleRate / 1000 / voice.clipSpeed, voice.clip.frameCount);
+      }
+    }
+  }
+
+  public long getDurationMs(int key) {
+    synchronized (this.lock) {
+      Voice voice = this.voices.get(key);
+
+      return voice != null ? (long) (voice.clip.getDurationMs() * voice.clipSpeed) : -1;
+    }
+  }
+
+  /**
+   * Set playback rate of voice, samples are interpolated linearly and pitch follows rate
+   *
+   * @param key
+   * @param rate
+   */
+  public void setRate(int key, float rate) {
+    synchronized (this.lock) {
+      Voice voice = this.voices.get(key);
+
+      if (voice != null) {
+        voice.rate = Math.max(.01f, rate);
+        voice.fraction = 0;
+      }
+    }
+  }
+
+  /**
+   * Replace clip of voice with a variant pre-rendered at other speed, position is kept in time of source clip
+   *
+   * @param key
+   * @param clip
+   * @param clipSpeed Speed at which clip was rendered from source clip
+   */
+  public void replaceClip(int key, PcmClip clip, float clipSpeed) {
+    synchronized (this.lock) {
+      Voice voice = this.voices.get(key);
+
+      if (voice == null) {
+        return;
+      }
+
+      voice.position = (int) Math.min(voice.position * voice.clipSpeed / clipSpeed, clip.frameCount);
+      voice.clip = clip;
+      voice.clipSpeed = clipSpeed;
+    }
+  }
+
+  /**
+   * Stop audio thread and release AudioTrack
+   */
+  public void release() {
+    Thread thread;
+
+    synchronized (this.lock) {
+      this.voices.clear();
+      this.activeCount = 0;
+      this.running = false;
+      this.lock.notifyAll();
+      thread = this.thread;
+      this.thread = null;
+    }
+
+    if (thread != null) {
+      try {
+        thread.join();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Start audio thread, if it is not running yet. Requires lock.
+   */
+  private void start() {
+    if (this.running) {
+      return;
+    }
+
+    this.running = true;
+    this.thread = new Thread(this, "RNSound-mixer");
+    this.thread.start();
+  }
+
+  /**
+   * Add voice to active voices and start audio thread. Requires lock.
+   *
+   * @param key
+   * @param delayFrames Frames of silence before voice becomes audible
+   * @return If voice exists and is playing
+   */
+  private boolean activate(int key, int delayFrames) {
+    Voice voice = this.voices.get(key);
+
+    if (voice == null || this.activeCount >= MAX_VOICES) {
+      return false;
+    }
+
+    if (voice.playing) {
+      return true;
+    }
+
+    voice.playing = true;
+    voice.appliedVolume = voice.fadeFrames > 0 ? voice.appliedVolume : voice.volume;
+    voice.appliedDuckVolume = voice.duckVolume;
+    if (voice.position == 0) {
+      voice.remainingLoops = voice.loops;
+    }
+    voice.delayFrames = delayFrames;
+    voice.playRequestNanos = delayFrames == 0 ? System.nanoTime() : 0;
+    this.activeVoices[this.activeCount++] = voice;
+
+    this.start();
+    this.lock.notifyAll();
+
+    return true;
+  }
+
+  /**
+   * Remove voice from active voices. Requires lock.
+   *
+   * @param voice
+   */
+  private void deactivate(Voice voice) {
+    voice.playing = false;
+    voice.waiting = false;
+    voice.pendingCount = 0;
+
+    for (int i = 0; i < this.activeCount; i++) {
+      if (this.activeVoices[i] == voice) {
+        this.activeVoices[i] = this.activeVoices[--this.activeCount];
+        this.activeVoices[this.activeCount] = null;
+        break;
+      }
+    }
+  }
+
+  @Override
+  public void run() {
+    Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_AUDIO);
+
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+      this.timestamp = new AudioTimestamp();
+    }
+
+    int minBufferSize = AudioTrack.getMinBufferSize(this.sampleRate, AudioFormat.CHANNEL_OUT_STEREO, AudioFormat.ENCODING_PCM_16BIT);
+    int bufferSize = Math.max(minBufferSize, this.framesPerBuffer * 2 * 2 * 2);
+    this.track = new AudioTrack(AudioManager.STREAM_MUSIC, this.sampleRate, AudioFormat.CHANNEL_OUT_STEREO, AudioFormat.ENCODING_PCM_16BIT, bufferSize, AudioTrack.MODE_STREAM);
+
+    // Frames which are queued in AudioTrack before a mixed buffer becomes audible
+    double bufferedMs = (bufferSize / 4) * 1000.0 / this.sampleRate;
+
+    try {
+      while (true) {
+        int endedCount;
+
+        synchronized (this.lock) {
+          // Sleep without active voices
+          while (this.running && this.activeCount == 0) {
+            this.track.pause();
+            this.track.flush();
+            this.framesWritten = 0;
+            this.lock.wait();
+          }
+
+          if (!this.running) {
+            break;
+          }
+
+          if (this.track.getPlayState() != AudioTrack.PLAYSTATE_PLAYING) {
+            this.track.play();
+          }
+
+          endedCount = this.mix(bufferedMs, this.getBufferStartNanos());
+        }
+
+        this.track.write(this.outputBuffer, 0, this.outputBuffer.length);
+        this.framesWritten += this.framesPerBuffer;
+
+        // Notify listener outside of lock
+        for (int i = 0; i < this.startedCount; i++) {
+          this.listener.onVoiceStarted(this.startedKeys[i], this.startedScheduledNanos[i], this.startedNanos[i]);
+        }
+        for (int i = 0; i < this.endedFadeCount; i++) {
+          this.endedFades[i].onFadeEnded(true);
+          this.endedFades[i] = null;
+        }
+        for (int i = 0; i < endedCount; i++) {
+          this.listener.onVoiceEnded(this.endedKeys[i], this.endedPositions[i]);
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    finally {
+      this.track.release();
+      this.track = null;
+    }
+  }
+
+  /**
+   * Estimate host time at which the next written frame becomes audible, via the presentation
+   * timestamp of AudioTrack or its playback head position
+   *
+   * @return Time in System.nanoTime()
+   */
+  private long getBufferStartNanos() {
+    if (this.timestamp != null && this.track.getTimestamp(this.timestamp)) {
+      return this.timestamp.nanoTime + (this.framesWritten - this.timestamp.framePosition) * 1000000000L / this.sampleRate;
+    }
+
+    long playedFrames = this.track.getPlaybackHeadPosition() & 0xffffffffL;
+
+    return System.nanoTime() + (this.framesWritten - playedFrames) * 1000000000L / this.sampleRate;
+  }
+
+  /**
+   * Mix one buffer of all active voices into outputBuffer. Requires lock.
+   *
+   * @param bufferedMs Latency of AudioTrack buffer
+   * @param bufferStartNanos Host time at which first frame of buffer becomes audible
+   * @return Count of voices which have ended in this buffer
+   */
+  private int mix(double bufferedMs, long bufferStartNanos) {
+    int endedCount = 0;
+    this.startedCount = 0;
+    this.endedFadeCount = 0;
+    float[] mix = this.mixBuffer;
+    Arrays.fill(mix, 0);
+
+    for (int v = 0; v < this.activeCount; v++) {
+      Voice voice = this.activeVoices[v];
+      float rate = voice.rate;
+      short[] samples = voice.clip.samples;
+      int frameCount = voice.clip.frameCount;
+
+      // Equal power pan law, normalized to unity gain of both channels at center
+      double angle = (voice.pan + 1) * Math.PI / 4;
+      float panLeft = (float) Math.min(1, Math.cos(angle) * Math.sqrt(2));
+      float panRight = (float) Math.min(1, Math.sin(angle) * Math.sqrt(2));
+
+      // Ramp volume linearly within buffer from volume at its start to volume at its end
+      float startVolume = voice.appliedVolume;
+      float endVolume = voice.volume;
+      if (voice.fadeFrames > 0) {
+        voice.fadeElapsedFrames = Math.min(voice.fadeElapsedFrames + this.framesPerBuffer, voice.fadeFrames);
+
+        if (voice.fadeElapsedFrames < voice.fadeFrames) {
+          endVolume = Fade.volumeAt(voice.fadeCurve, voice.fadeFrom, voice.volume, (float) voice.fadeElapsedFrames / voice.fadeFrames);
+        }
+        else {
+          voice.fadeFrames = 0;
+
+          if (voice.fadeListener != null) {
+            this.endedFades[this.endedFadeCount++] = voice.fadeListener;
+            voice.fadeListener = null;
+          }
+        }
+      }
+      voice.appliedVolume = endVolume;
+
+      // Ramp duck volume within the same buffer
+      startVolume *= voice.appliedDuckVolume;
+      endVolume *= voice.duckVolume;
+      voice.appliedDuckVolume = voice.duckVolume;
+      float volumeStep = (endVolume - startVolume) / this.framesPerBuffer;
+
+      // Restart voice at frame of scheduled start, if it falls into this buffer
+      int restartFrame = -1;
+      if (voice.pendingCount > 0) {
+        long offsetFrames = (voice.pendingStarts[0] - bufferStartNanos) * this.sampleRate / 1000000000L;
+
+        if (offsetFrames < this.framesPerBuffer) {
+          restartFrame = (int) Math.max(0, offsetFrames);
+
+          this.startedKeys[this.startedCount] = voice.key;
+          this.startedScheduledNanos[this.startedCount] = voice.pendingStarts[0];
+          this.startedNanos[this.startedCount] = bufferStartNanos + restartFrame * 1000000000L / this.sampleRate;
+          this.startedCount++;
+
+          voice.pendingCount--;
+          System.arraycopy(voice.pendingStarts, 1, voice.pendingStarts, 0, voice.pendingCount);
+        }
+      }
+
+      // Skip silence before scheduled or delayed voice
+      int start = 0;
+      if (voice.waiting) {
+        if (restartFrame < 0) {
+          continue;
+        }
+
+        voice.waiting = false;
+        voice.position = 0;
+        start = restartFrame;
+      }
+      if (voice.delayFrames > 0) {
+        start = Math.min(voice.delayFrames, this.framesPerBuffer);
+        voice.delayFrames -= start;
+
+        if (start == this.framesPerBuffer) {
+          continue;
+        }
+      }
+
+      // Measure time from play request to first mixed buffer plus queued buffer
+      if (voice.playRequestNanos != 0) {
+        this.latencyStats.record((System.nanoTime() - voice.playRequestNanos) / 1000000.0 + bufferedMs);
+        voice.playRequestNanos = 0;
+      }
+
+      AudioTap tap = voice.tap;
+      if (tap != null) {
+        Arrays.fill(this.tapBuffer, 0);
+      }
+
+      for (int i = start; i < this.framesPerBuffer; i++) {
+        if (i == restartFrame) {
+          voice.position = 0;
+          voice.remainingLoops = voice.loops;
+        }
+
+        if (voice.position >= frameCount) {
+          if (voice.remainingLoops == 0) {
+            // Continue with silence until restart in this buffer
+            if (restartFrame > i) {
+              i = restartFrame - 1;
+              continue;
+            }
+
+            break;
+          }
+
+          if (voice.remainingLoops > 0) {
+            voice.remainingLoops--;
+          }
+          voice.position = 0;
+
+          if (frameCount == 0) {
+            break;
+          }
+        }
+
+        int sample = voice.position * 2;
+        float sampleLeft = samples[sample];
+        float sampleRight = samples[sample + 1];
+
+        if (rate == 1) {
+          voice.position++;
+        }
+        else {
+          // Interpolate linearly between this and next frame
+          int next = voice.position + 1 < frameCount ? sample + 2 : sample;
+          sampleLeft += (samples[next] - sampleLeft) * voice.fraction;
+          sampleRight += (samples[next + 1] - sampleRight) * voice.fraction;
+
+          voice.fraction += rate;
+          int frames = (int) voice.fraction;
+          voice.fraction -= frames;
+          voice.position += frames;
+        }
+
+        float volume = startVolume + volumeStep * i;
+        float left = sampleLeft * volume * panLeft;
+        float right = sampleRight * volume * panRight;
+        mix[i * 2] += left;
+        mix[i * 2 + 1] += right;
+
+        if (tap != null) {
+          this.tapBuffer[i] = (left + right) / 2;
+        }
+      }
+
+      if (tap != null) {
+        tap.write(this.tapBuffer, this.framesPerBuffer, this.sampleRate);
+      }
+
+      // Remove ended voice and restart at beginning on next play, keep it waiting for scheduled starts
+      if (voice.position >= frameCount && voice.remainingLoops == 0) {
+        this.endedKeys[endedCount] = voice.key;
+        this.endedPositions[endedCount] = voice.clip.getDurationMs();
+        endedCount++;
+
+        voice.position = 0;
+        voice.remainingLoops = voice.loops;
+
+        if (voice.pendingCount > 0) {
+          voice.waiting = true;
+        }
+        else {
+          this.deactivate(voice);
+          v--;
+        }
+      }
+    }
+
+    // Ramp master volume linearly within buffer
+    float masterStep = (this.masterVolume - this.appliedMasterVolume) / this.framesPerBuffer;
+    for (int i = 0; i < mix.length; i++) {
+      float sample = mix[i] * (this.appliedMasterVolume + masterStep * (i / 2));
+      this.outputBuffer[i] = (short) (sample > Short.MAX_VALUE ? Short.MAX_VALUE : (sample < Short.MIN_VALUE ? Short.MIN_VALUE : sample));
+    }
+    this.appliedMasterVolume = this.masterVolume;
+
+    return endedCount;
+  }
+}
@@ -5,6 +5,165 @@
 
 type AVAudioSessionCategory = 'Ambient' | 'SoloAmbient' | 'Playback' | 'Record' | 'PlayAndRecord' | 'AudioProcessing' | 'MultiRoute'
 
+type PlayerPoolStats = {
+  size: number
+  maxSize: number
+  hits: number
+  misses: number
+  hitRate: number
+  reclaimed: number
+}
+
+type BufferUsage = {
+  players: number
+  bytesAllocated: number
+  peakBytesAllocated: number
+}
+
+type TapResult = {
+  /** Root mean square of the samples since the last result, 0..1 */
+  rms: number
+  /** Largest absolute sample since the last result, 0..1 */
+  peak: number
+  sampleRate: number
+  /** fftSize / 2 bins from 0 Hz to half the sample rate, -100..0 dB scaled to 0..255, null without fftSize */
+  spectrum: Uint8Array | null
+}
+
+type MemoryUsage = {
+  players: number
+  streaming: number
+  effects: number
+  total: number
+  maxBytes: number
+  maxPlayerBytes: number
+}
+
+type BufferProfile = 'default' | 'effect' | 'stream' | 'streaming' | {
+  minBufferMs?: number
+  maxBufferMs?: number
+  bufferForPlaybackMs?: number
+  bufferForPlaybackAfterRebufferMs?: number
+  maxBufferBytes?: number
+}
+
+type LatencyStats = {
+  count: number
+  min: number
+  average: number
+  max: number
+}
+
+/** Statistics of decoded files, speed variants pre-rendered by setSpeed() are not counted but share maxSize */
+type PcmCacheStats = {
+  count: number
+  size: number
+  maxSize: number
+  hits: number
+  misses: number
+  evictions: number
+}
+
+type RemoteCacheOptions = {
+  enabled?: boolean
+  maxSize?: number
+  persistent?: boolean
+}
+
+type RemoteCacheStats = {
+  size: number
+  maxSize: number
+  hits: number
+  misses: number
+  bytesSaved: number
+}
+
+type BatchMethod = 'prepare' | 'play' | 'pause' | 'stop' | 'release' | 'setVolume' | 'setLooping' | 'setSpeed' | 'setCurrentTime'
+
+type BatchOperation = {
+  sound: Sound
+  method: BatchMethod
+  value?: number | boolean
+  options?: SoundOptions
+}
+
+type BatchResult = {
+  key: number
+  success: boolean
+  error?: any
+  props?: { duration: number, numberOfChannels?: number }
+}
+
+type LatencyHistogram = {
+  count: number
+  average: number
+  p50: number
+  p90: number
+  p99: number
+  max: number
+  buckets: { le: number | null, count: number }[]
+}
+
+type Metrics = {
+  enabled: boolean
+  prepares: number
+  prepareErrors: number
+  rebuffers: number
+  bytesLoaded: number
+  prepareLatency: LatencyHistogram
+  timeToFirstAudio: LatencyHistogram
+  livePlayers: number
+  liveListeners: number
+  idlePlayers: number
+  suspendedPlayers: number
+  suspensions: number
+  rehydrations: number
+  coalescedPrepares: number
+  liveEffects: number
+  droppedEvents: number
+}
+
+type SoundOptions = {
+  /**
+   * Decode the file once into memory and play it through a low latency mixer with many
+   * simultaneous voices. Intended for short sound effects of local files (android only).
+   */
+  effect?: boolean
+  /**
+   * Buffering of the player (android only): 'effect' keeps a small buffer and starts fast, 'stream'
+   * keeps a large buffer for network audio, 'streaming' keeps at most 1 MB of long local files in reused
+   * segments, a map sets the limits in milliseconds and bytes explicitly.
+   */
+  buffer?: BufferProfile
+}
+
+type ScheduledStart = {
+  scheduledTime: number
+  startTime: number
+}
+
+type FadeCurve = 'linear' | 'equalPower' | 'exponential'
+
+type BankManifestItem = {
+  /**
+   * Name of the sound in the object of sounds, defaults to filename
+   */
+  name?: string
+  filename: string
+  basePath?: string
+  /**
+   * Sounds of higher priority are loaded first (android only), defaults to 0
+   */
+  priority?: number
+  options?: SoundOptions
+}
+
+type BankProgress = {
+  loaded: number
+  failed: number
+  total: number
+}
+
 type AVAudioSessionMode = 'Default' | 'VoiceChat' | 'VideoChat' | 'GameChat' | 'VideoRecording' | 'Measurement' | 'MoviePlayback' | 'SpokenAudio'
 
 declare class Sound {
@@ -33,6 +192,25 @@ declare class Sound {
    */
   static setCategory(category: AVAudioSessionCategory, mixWithOthers: boolean): void
 
+  /**
+   * Sets how sounds share audio focus while mixWithOthers is false (android only). A playing sound ducks
+   * or pauses the other sounds of the app until it stops, pauses or ends, they stay loaded.
+   *
+   * @param options otherPlayers: 'duck' (default), 'pause' or 'mix' the other sounds of the app,
+   * duckVolume: volume of ducked sounds (default 0.2), duckOnTransientLoss: duck instead of pause
+   * when another app plays shortly at lower volume (default true)
+   */
+  static setFocusPolicy(options: { otherPlayers?: 'duck' | 'pause' | 'mix', duckVolume?: number, duckOnTransientLoss?: boolean }): void
+
+  /**
+   * Sets when loaded sounds, which don't play, release their player (android only). Suspended sounds keep
+   * their position, volume and loops and are prepared again on the next play().
+   *
+   * @param options idleTimeout: milliseconds without playback until a sound is suspended (default 300000,
+   * 0 disables it), maxWarmPlayers: maximum count of prepared sounds, least recently used ones are suspended first (default 32)
+   */
+  static setIdlePolicy(options: { idleTimeout?: number, maxWarmPlayers?: number }): void
+
   /**
    * Sets AVAudioSession mode, which works in conjunction with the category to determine audio mixing behavior.
    * Parameter options: "Default", "VoiceChat", "VideoChat", "GameChat", "VideoRecording", "Measurement", "MoviePlayback", "SpokenAudio".
@@ -42,12 +220,211 @@ declare class Sound {
    */
   static setMode(mode: AVAudioSessionMode): void
 
+  /**
+   * Applies operations on many sounds in one native call (android only, other platforms apply them one by one).
+   * The 'prepare' operation loads a released sound again.
+   *
+   * @param operations Sound, method and depending on method value or options
+   * @param cb Callback function, which receives the results of all operations in order
+   */
+  static batch(operations: BatchOperation[], cb?: (results: BatchResult[]) => void): void
+
+  /**
+   * Starts several sounds together, each after its own offset. Effects on android start in the same
+   * buffer of the native mixer with sample accurate offsets, other sounds are started via timers.
+   *
+   * @param layers Sound and optional offset in seconds
+   * @param cb Optional callback function, which receives the results of all sounds in order
+   */
+  static playTogether(layers: { sound: Sound, offset?: number }[], cb?: (results: { key: number, success: boolean }[]) => void): void
+
+  /**
+   * Callback will receive the current host time in milliseconds, which is the clock of playAt() and
+   * scheduleSequence(). On other platforms than android it is Date.now().
+   *
+   * @param cb
+   */
+  static getHostTime(cb: (hostTime: number) => void): void
+
+  /**
+   * Fades out one sound and fades in another one natively, which is started from silence if it is not playing.
+   * The faded out sound is paused at the end of the fade and keeps its volume for the next playback (android only,
+   * other platforms switch at once).
+   *
+   * @param fromSound Sound to fade out
+   * @param toSound Sound to fade in to its volume
+   * @param durationMs Duration of fade in milliseconds
+   * @param curve Optional curve of fade, defaults to 'equalPower'
+   * @param cb Optional callback function, true if both fades completed
+   */
+  static crossfade(fromSound: Sound, toSound: Sound, durationMs: number, curve?: FadeCurve, cb?: (completed: boolean) => void): void
+
+  /**
+   * Schedules starts of sounds at host times ahead of time. Effects on android start at the exact frame
+   * of the native mixer, the same sound may be scheduled several times (e.g. clicks of a metronome).
+   *
+   * @param items Sound and start time in clock of getHostTime()
+   * @param cb Optional callback function, when all sounds have started
+   */
+  static scheduleSequence(items: { sound: Sound, time: number }[], cb?: (results: { key: number, success: boolean, props?: ScheduledStart }[]) => void): void
+
+  /**
+   * Sets the maximum count of idle players, which are kept for reuse by new sounds (android only).
+   * Least recently used players above this count are released. The default is 8.
+   *
+   * @param size Maximum count of idle players
+   */
+  static setPlayerPoolSize(size: number): void
+
+  /**
+   * Callback will receive size, hit and miss statistics of the pool of idle players (android only).
+   *
+   * @param cb
+   */
+  static getPlayerPoolStats(cb: (stats: PlayerPoolStats) => void): void
+
+  /**
+   * Returns the memory of buffered media of the loaded sounds per buffer profile (android only).
+   *
+   * @param cb
+   */
+  static getBufferUsage(cb: (usage: { [profile: string]: BufferUsage }) => void): void
+
+  /**
+   * Sets the ceilings of buffered media, which are enforced across all loaded sounds (android only).
+   *
+   * @param options maxBytes: bytes of all sounds together (default 64 MB), maxPlayerBytes: bytes of each
+   * sound (default none), -1 removes a ceiling
+   */
+  static setMemoryLimits(options: { maxBytes?: number, maxPlayerBytes?: number }): void
+
+  /**
+   * Returns the current bytes of buffered media of sounds and of decoded effects (android only).
+   *
+   * @param cb
+   */
+  static getMemoryUsage(cb: (usage: MemoryUsage) => void): void
+
+  /**
+   * Decodes a file into the cache of effects without creating a sound (android only).
+   *
+   * @param filename Either absolute or relative path to the sound file
+   * @param basePath Base path of the file, pass '' if filename is an absolute path
+   * @param cb Callback function, which receives an error or the duration and number of channels
+   */
+  static preload(filename: string, basePath: string, cb: (error: any, props: { duration: number, numberOfChannels: number }) => void): void
+
+  /**
+   * Removes a decoded file and its variants pre-rendered by setSpeed() from the cache of effects (android only).
+   * Loaded effects of this file keep working.
+   *
+   * @param filename Either absolute or relative path to the sound file
+   * @param basePath Base path of the file, pass '' if filename is an absolute path
+   */
+  static evict(filename: string, basePath: string): void
+
+  /**
+   * Sets the memory budget of the cache of decoded effects in bytes (android only). The default is 16 MB.
+   *
+   * @param bytes
+   */
+  static setPcmCacheSize(bytes: number): void
+
+  /**
+   * Callback will receive size and hit statistics of the cache of decoded effects (android only).
+   *
+   * @param cb
+   */
+  static getPcmCacheStats(cb: (stats: PcmCacheStats) => void): void
+
+  /**
+   * Sets options of the disk cache for remote sounds (android only). Has to be called before the first
+   * remote sound is loaded. By default the cache is enabled, limited to 64 MB and kept across app sessions.
+   *
+   * @param options
+   */
+  static setRemoteCacheOptions(options: RemoteCacheOptions): void
+
+  /**
+   * Callback will receive hit, miss and bytes saved statistics of the disk cache for remote sounds (android only).
+   *
+   * @param cb
+   */
+  static getRemoteCacheStats(cb: (stats: RemoteCacheStats) => void): void
+
+  /**
+   * Sets options of the native event queue (android only). Events of all sounds are sent once per frame.
+   *
+   * @param options throttle: minimum milliseconds between two sends (default 0),
+   *   capacity: maximum count of queued events, the oldest events are dropped above it (default 256)
+   */
+  static setEventOptions(options: { throttle?: number, capacity?: number }): void
+
+  /**
+   * Enables or disables collection of metrics (android only). Metrics are disabled by default.
+   *
+   * @param enabled
+   */
+  static setMetricsEnabled(enabled: boolean): void
+
+  /**
+   * Callback will receive collected metrics: prepare latency and time to first audio histograms in milliseconds,
+   * rebuffer count, bytes loaded and the current count of players, listeners and effects (android only).
+   *
+   * @param cb
+   */
+  static getMetrics(cb: (metrics: Metrics) => void): void
+
+  /**
+   * Resets collected metrics (android only).
+   */
+  static resetMetrics(): void
+
+  /**
+   * Callback will receive measured latencies in milliseconds from play() to audible output,
+   * separately for regular sounds and effects (android only).
+   *
+   * @param cb
+   */
+  static getLatencyStats(cb: (stats: { exoPlayer: LatencyStats, effect: LatencyStats }) => void): void
+
+  /**
+   * Creates one sound which plays several files back to back without gaps (android only).
+   * The next file is loaded while the current one plays, the 'queueItem' event reports transitions.
+   *
+   * @param filenames Absolute or relative paths of the sound files
+   * @param basePath Optional base path of the files
+   * @param onError Optional callback function if loading files failed
+   * @param options Optional settings of playback
+   */
+  static createQueue(filenames: string[], basePath: string, onError?: (error: any) => void, options?: SoundOptions): Sound
+
+  /**
+   * Loads all sounds of a manifest at once, on android with bounded concurrency in order of priority.
+   * Returns the sounds by name, which can be used after the callback was invoked without error.
+   *
+   * @param bankId Id of the bank, an existing bank of this id is unloaded first
+   * @param manifest Sounds of the bank
+   * @param options concurrency: Maximum count of sounds loaded at the same time (android only), defaults to 4
+   * @param onProgress Optional callback function after each loaded sound
+   * @param cb Optional callback function when all sounds are loaded, error lists the failed sounds
+   */
+  static preloadBank(bankId: string, manifest: BankManifestItem[], options?: { concurrency?: number }, onProgress?: (progress: BankProgress) => void, cb?: (error: any, sounds: { [name: string]: Sound }) => void): { [name: string]: Sound }
+
+  /**
+   * Releases all sounds of a bank and stops loading of its remaining sounds.
+   *
+   * @param bankId Id of the bank
+   */
+  static unloadBank(bankId: string): void
+
   /**
    * @param filename Either absolute or relative path to the sound file
    * @param basePath Optional base path of the file. Omit this or pass '' if filename is an absolute path. Otherwise, you may use one of the predefined directories: Sound.MAIN_BUNDLE, Sound.DOCUMENT, Sound.LIBRARY, Sound.CACHES.
    * @param onError Optional callback function if loading file failed
+   * @param options Optional settings of playback
    */
-  constructor(filename: string, basePath: string, onError: (error: any) => void)
+  constructor(filename: string, basePath: string, onError: (error: any) => void, options?: SoundOptions)
 
   /**
    * Return true if the sound has been loaded.
@@ -60,6 +437,15 @@ declare class Sound {
    */
   play(onEnd?: () => void): void
 
+  /**
+   * Plays the sound at a host time of getHostTime(). Effects on android start sample accurately
+   * and a playing effect restarts at this time.
+   *
+   * @param hostTime Start time in milliseconds
+   * @param cb Optional callback function with the scheduled and the actual start time
+   */
+  playAt(hostTime: number, cb?: (error: any, props: ScheduledStart) => void): void
+
   /**
    * Pause the sound
    * @param cb - Optional callback function that gets called when the sound has been paused.
@@ -77,6 +463,8 @@ declare class Sound {
    * 
    * Events:
    *  - playing: callback have to be (isPlaying: boolean, currentTime: number) => void
+   *  - progress: callback have to be (currentTime: number) => void
+   *  - queueItem: callback have to be (index: number, previousIndex: number) => void (android only)
    * 
    * @param event
    * @param cb
@@ -117,6 +505,16 @@ declare class Sound {
    */
   setVolume(value: number): void
 
+  /**
+   * Fades the volume natively without bridge calls per step (android only, other platforms set the volume at once).
+   *
+   * @param value Target volume ranging from 0.0 (silence) through 1.0 (full volume)
+   * @param durationMs Duration of fade in milliseconds
+   * @param curve Optional curve of fade, defaults to 'linear'
+   * @param cb Optional callback function, true when the target volume is reached, false if the fade was replaced
+   */
+  fadeTo(value: number, durationMs: number, curve?: FadeCurve, cb?: (completed: boolean) => void): void
+
   /**
    * Return the stereo pan position of the audio player (not the system-wide pan)
    * Ranges from -1.0 (full left) through 1.0 (full right). The default value is 0.0 (center)
@@ -139,7 +537,7 @@ declare class Sound {
 
   /**
    * Set the loop count
-   * @param value - 0 means to play the sound once. A positive number specifies the number of times to return to the start and play again (iOS only). A negative number indicates an indefinite loop (iOS and Android).
+   * @param value - 0 means to play the sound once. A positive number specifies the number of times to return to the start and play again (iOS and Android). A negative number indicates an indefinite loop (iOS, Android and Windows).
    */
   setNumberOfLoops(value: number): void
 
@@ -156,10 +554,13 @@ declare class Sound {
   setCurrentTime(value: number): void
 
   /**
-   * Speed of the audio playback (iOS Only).
+   * Speed of the audio playback.
    * @param value
+   * @param options mode: 'stretch' (default) keeps the pitch, 'resample' lets the pitch follow the speed at
+   * a fraction of the CPU time, prerender: effects play a cached variant of their clip rendered at the speed
+   * (android only)
    */
-  setSpeed(value: number): void
+  setSpeed(value: number, options?: { mode?: 'stretch' | 'resample', prerender?: boolean }): void
 
   /**
    * Whether to enable playback in silence mode (iOS only)
@@ -175,6 +576,33 @@ declare class Sound {
    */
   setCategory(value: AVAudioSessionCategory): void
 
+  /**
+   * Skip to a file of a sound created by Sound.createQueue() (android only).
+   * @param index Index of the file in the queue
+   */
+  skipTo(index: number): void
+
+  /**
+   * Set the interval of progress events in milliseconds (android only). The default is 10000.
+   * @param value
+   */
+  setProgressInterval(value: number): void
+
+  /**
+   * Analyze the audio of the sound natively and receive levels and an optional spectrum (android only).
+   * Results are computed from preallocated buffers and sent at most once per interval while the sound plays.
+   *
+   * @param options interval: milliseconds between two results (default 50, minimum 16),
+   * fftSize: power of two from 64 to 4096 to also compute a spectrum (default 0)
+   * @param callback
+   */
+  setTap(options: { interval?: number, fftSize?: number }, callback: (result: TapResult) => void): void
+
+  /**
+   * Stop the analysis of setTap() (android only)
+   */
+  removeTap(): void
+
   /**
    * Turn speaker phone on (android only)
    * @param value
@@ -13,49 +13,204 @@ import {
 
 var onPlayingCallbacks = new Map();
 var onProgressCallbacks = new Map();
+var onQueueItemCallbacks = new Map();
+var onBankProgressCallbacks = new Map();
+var onTapCallbacks = new Map();
+var soundBanks = new Map();
 var nextKey = 0;
 
 function isRelativePath(path) {
   return !/^(\/|http(s?)|asset)/.test(path);
 }
 
-function Sound(filename, basePath, onError, options) {
-  var asset = resolveAssetSource(filename);
-  if (asset) {
-    this._filename = asset.uri;
-    onError = basePath;
-  } else {
-    this._filename = basePath ? basePath + '/' + filename : filename;
+function resolveFilename(filename, basePath) {
+  if (basePath) {
+    return basePath + '/' + filename;
+  }
+
+  if (IsAndroid && isRelativePath(filename)) {
+    return filename.toLowerCase().replace(/\.[^.]+$/, '');
+  }
 
-    if (IsAndroid && !basePath && isRelativePath(filename)) {
-      this._filename = filename.toLowerCase().replace(/\.[^.]+$/, '');
+  return filename;
+}
+
+var BASE64_ALPHABET = 'ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/';
+
+// Decode base64 string of tap spectrum into bytes
+function decodeBase64(string) {
+  var padding = string.endsWith('==') ? 2 : (string.endsWith('=') ? 1 : 0);
+  var bytes = new Uint8Array(string.length / 4 * 3 - padding);
+  var index = 0;
+
+  for (var i = 0; i < string.length; i += 4) {
+    var chunk = (BASE64_ALPHABET.indexOf(string[i]) << 18)
+      | (BASE64_ALPHABET.indexOf(string[i + 1]) << 12)
+      | ((BASE64_ALPHABET.indexOf(string[i + 2]) & 63) << 6)
+      | (BASE64_ALPHABET.indexOf(string[i + 3]) & 63);
+
+    bytes[index++] = chunk >> 16 & 255;
+    if (index < bytes.length) {
+      bytes[index++] = chunk >> 8 & 255;
+    }
+    if (index < bytes.length) {
+      bytes[index++] = chunk & 255;
     }
   }
 
-  this._loaded = false;
-  this._key = nextKey++;
-  this._duration = -1;
-  this._numberOfChannels = -1;
-  this._volume = 1;
-  this._pan = 0;
-  this._numberOfLoops = 0;
-  this._speed = 1;
-  RNSound.prepare(this._filename, this._key, options || {}, (error, props) => {
+  return bytes;
+}
+
+function initSound(sound, filename) {
+  sound._filename = filename;
+  sound._loaded = false;
+  sound._key = nextKey++;
+  sound._duration = -1;
+  sound._numberOfChannels = -1;
+  sound._volume = 1;
+  sound._pan = 0;
+  sound._numberOfLoops = 0;
+  sound._speed = 1;
+}
+
+function onPrepared(sound, onError) {
+  return (error, props) => {
     if (props) {
       if (typeof props.duration === 'number') {
-        this._duration = props.duration;
+        sound._duration = props.duration;
       }
       if (typeof props.numberOfChannels === 'number') {
-        this._numberOfChannels = props.numberOfChannels;
+        sound._numberOfChannels = props.numberOfChannels;
       }
     }
     if (error === null) {
-      this._loaded = true;
+      sound._loaded = true;
     }
     onError && onError(error, props);
-  });
+  };
+}
+
+function Sound(filename, basePath, onError, options) {
+  var asset = resolveAssetSource(filename);
+  if (asset) {
+    initSound(this, asset.uri);
+    onError = basePath;
+  } else {
+    initSound(this, resolveFilename(filename, basePath));
+  }
+
+  RNSound.prepare(this._filename, this._key, options || {}, onPrepared(this, onError));
 }
 
+// android only
+Sound.createQueue = function (filenames, basePath, onError, options) {
+  var sound = Object.create(Sound.prototype);
+  initSound(sound, filenames.map((filename) => resolveFilename(filename, basePath)));
+
+  if (IsAndroid) {
+    RNSound.prepareQueue(sound._filename, sound._key, options || {}, onPrepared(sound, onError));
+  } else {
+    onError && onError({ code: -1, message: 'queues are supported on android only' });
+  }
+
+  return sound;
+};
+
+// Prepare a manifest of sounds together, natively with bounded concurrency in order of priority on android
+Sound.preloadBank = function (bankId, manifest, options, onProgress, callback) {
+  var sounds = {};
+  var bankSounds = manifest.map((item) => {
+    var sound = Object.create(Sound.prototype);
+    initSound(sound, resolveFilename(item.filename, item.basePath));
+    sounds[item.name || item.filename] = sound;
+    return sound;
+  });
+
+  Sound.unloadBank(bankId);
+  soundBanks.set(bankId, bankSounds);
+
+  var onComplete = (results) => {
+    var failures = [];
+
+    results.forEach((result, index) => {
+      var sound = bankSounds[index];
+
+      if (result.success) {
+        onPrepared(sound)(null, result.props);
+      } else {
+        failures.push({ name: manifest[index].name || manifest[index].filename, error: result.error });
+      }
+    });
+
+    onBankProgressCallbacks.delete(bankId);
+    callback && callback(failures.length > 0 ? { code: -1, message: `${failures.length} of ${results.length} sounds failed to load`, failures: failures } : null, sounds);
+  };
+
+  if (IsAndroid) {
+    if (onProgress) {
+      onBankProgressCallbacks.set(bankId, onProgress);
+    }
+
+    var nativeSounds = manifest.map((item, index) => ({
+      fileName: bankSounds[index]._filename,
+      key: bankSounds[index]._key,
+      priority: item.priority || 0,
+      options: item.options || {},
+    }));
+
+    RNSound.preloadBank(bankId, nativeSounds, options || {}, (error, results) => {
+      if (error) {
+        onBankProgressCallbacks.delete(bankId);
+        callback && callback(error, sounds);
+      } else {
+        onComplete(results);
+      }
+    });
+  } else {
+    // Prepare all sounds at once on platforms without native bank support
+    var results = new Array(bankSounds.length);
+    var loaded = 0;
+    var failed = 0;
+
+    if (bankSounds.length === 0) {
+      onComplete(results);
+    }
+
+    bankSounds.forEach((sound, index) => {
+      RNSound.prepare(sound._filename, sound._key, manifest[index].options || {}, (error, props) => {
+        results[index] = error ? { key: sound._key, success: false, error: error } : { key: sound._key, success: true, props: props };
+        error ? failed++ : loaded++;
+
+        onProgress && onProgress({ loaded: loaded, failed: failed, total: bankSounds.length });
+        if (loaded + failed === bankSounds.length) {
+          onComplete(results);
+        }
+      });
+    });
+  }
+
+  return sounds;
+};
+
+// Release all sounds of a bank
+Sound.unloadBank = function (bankId) {
+  var bankSounds = soundBanks.get(bankId);
+
+  if (!bankSounds) {
+    return;
+  }
+
+  soundBanks.delete(bankId);
+  onBankProgressCallbacks.delete(bankId);
+
+  if (IsAndroid) {
+    RNSound.unloadBank(bankId);
+    bankSounds.forEach((sound) => sound._loaded = false);
+  } else {
+    bankSounds.forEach((sound) => sound.release());
+  }
+};
+
 Sound.prototype.isLoaded = function () {
   return this._loaded;
 };
@@ -69,6 +224,20 @@ Sound.prototype.play = function (onEnd) {
   return this;
 };
 
+Sound.prototype.playAt = function (hostTime, callback) {
+  if (IsAndroid) {
+    RNSound.playAt(this._key, hostTime, (error, props) => callback && callback(error, props));
+  } else {
+    // Start via timer on platforms without native scheduling, host time is Date.now()
+    setTimeout(() => {
+      var startTime = Date.now();
+      this.play();
+      callback && callback(null, { scheduledTime: hostTime, startTime: startTime });
+    }, Math.max(0, hostTime - Date.now()));
+  }
+  return this;
+};
+
 Sound.prototype.pause = function (callback) {
   if (this._loaded) {
     RNSound.pause(this._key, () => {
@@ -93,6 +262,12 @@ Sound.prototype.on = function (event, callback) {
       onPlayingCallbacks.set(this._key, callback);
     }
 
+    return;
+  } else if (event == "queueItem") {
+    if (IsAndroid) {
+      onQueueItemCallbacks.set(this._key, callback);
+    }
+
     return;
   } else if (event == "progress") {
     if (Platform.OS == "android") {
@@ -108,28 +283,83 @@ Sound.prototype.on = function (event, callback) {
 };
 
 if (Platform.OS == "android") {
-  DeviceEventEmitter.addListener("RNSound-playing", (options) => {
-    if (!options || options.key == null || options.key == undefined) {
+  // Events of all sounds are sent once per frame as array
+  DeviceEventEmitter.addListener("RNSound-playing", (items) => {
+    if (!Array.isArray(items)) {
       return;
     }
 
-    var callback = onPlayingCallbacks.get(options.key);
+    items.forEach((options) => {
+      var callback = onPlayingCallbacks.get(options.key);
 
-    if (callback) {
-      callback(options.isPlaying, options.currentTime);
+      if (callback) {
+        callback(options.isPlaying, options.currentTime);
+      }
+    });
+  });
+
+  DeviceEventEmitter.addListener("RNSound-queue-item", (items) => {
+    if (!Array.isArray(items)) {
+      return;
     }
+
+    items.forEach((options) => {
+      var callback = onQueueItemCallbacks.get(options.key);
+
+      if (callback) {
+        callback(options.index, options.previousIndex);
+      }
+    });
   });
 
-  DeviceEventEmitter.addListener("RNSound-progress", (options) => {
-    if (!options || options.key == null || options.key == undefined) {
+  DeviceEventEmitter.addListener("RNSound-bank-progress", (items) => {
+    if (!Array.isArray(items)) {
       return;
     }
 
-    var callback = onProgressCallbacks.get(options.key);
+    items.forEach((options) => {
+      var callback = onBankProgressCallbacks.get(options.bankId);
 
-    if (callback) {
-      callback(options.progress);
+      if (callback) {
+        callback({ loaded: options.loaded, failed: options.failed, total: options.total });
+      }
+    });
+  });
+
+  DeviceEventEmitter.addListener("RNSound-tap", (items) => {
+    if (!Array.isArray(items)) {
+      return;
     }
+
+    items.forEach((options) => {
+      var callback = onTapCallbacks.get(options.key);
+
+      if (callback) {
+        callback({
+          rms: options.rms,
+          peak: options.peak,
+          sampleRate: options.sampleRate,
+          spectrum: options.spectrum ? decodeBase64(options.spectrum) : null,
+        });
+      }
+    });
+  });
+
+  DeviceEventEmitter.addListener("RNSound-progress", (items) => {
+    if (!Array.isArray(items)) {
+      return;
+    }
+
+    // Each item holds the progress of all players, which were due in one tick
+    items.forEach((tick) => {
+      tick.keys.forEach((key, index) => {
+        var callback = onProgressCallbacks.get(key);
+
+        if (callback) {
+          callback(tick.progress[index]);
+        }
+      });
+    });
   });
 }
 
@@ -157,6 +387,7 @@ Sound.prototype.reset = function () {
 
 Sound.prototype.release = function () {
   if (this._loaded) {
+    onTapCallbacks.delete(this._key);
     RNSound.release(this._key);
     this._loaded = false;
   }
@@ -187,6 +418,20 @@ Sound.prototype.setVolume = function (value) {
   return this;
 };
 
+Sound.prototype.fadeTo = function (value, durationMs, curve, callback) {
+  this._volume = value;
+  if (!this._loaded) {
+    callback && callback(false);
+  } else if (IsAndroid) {
+    RNSound.fadeTo(this._key, value, durationMs, curve || 'linear', (completed) => callback && callback(completed));
+  } else {
+    // Set volume at once on platforms without native fades
+    this.setVolume(value);
+    callback && callback(true);
+  }
+  return this;
+};
+
 Sound.prototype.getSystemVolume = function (callback) {
   if (IsAndroid) {
     RNSound.getSystemVolume(callback);
@@ -219,7 +464,7 @@ Sound.prototype.getNumberOfLoops = function () {
 Sound.prototype.setNumberOfLoops = function (value) {
   this._numberOfLoops = value;
   if (this._loaded) {
-    if (IsAndroid || IsWindows) {
+    if (IsWindows) {
       RNSound.setLooping(this._key, !!value);
     } else {
       RNSound.setNumberOfLoops(this._key, value);
@@ -228,10 +473,12 @@ Sound.prototype.setNumberOfLoops = function (value) {
   return this;
 };
 
-Sound.prototype.setSpeed = function (value) {
+Sound.prototype.setSpeed = function (value, options) {
   this._setSpeed = value;
   if (this._loaded) {
-    if (!IsWindows) {
+    if (IsAndroid) {
+      RNSound.setSpeed(this._key, value, options || {});
+    } else if (!IsWindows) {
       RNSound.setSpeed(this._key, value);
     }
   }
@@ -251,6 +498,40 @@ Sound.prototype.setCurrentTime = function (value) {
   return this;
 };
 
+// android only
+Sound.prototype.skipTo = function (index) {
+  if (IsAndroid && this._loaded) {
+    RNSound.skipToQueueItem(this._key, index);
+  }
+  return this;
+};
+
+// android only
+Sound.prototype.setProgressInterval = function (value) {
+  if (IsAndroid) {
+    RNSound.setProgressInterval(this._key, value);
+  }
+  return this;
+};
+
+// android only
+Sound.prototype.setTap = function (options, callback) {
+  if (IsAndroid) {
+    onTapCallbacks.set(this._key, callback);
+    RNSound.setTap(this._key, options || {});
+  }
+  return this;
+};
+
+// android only
+Sound.prototype.removeTap = function () {
+  if (IsAndroid) {
+    onTapCallbacks.delete(this._key);
+    RNSound.removeTap(this._key);
+  }
+  return this;
+};
+
 // android only
 Sound.prototype.setSpeakerphoneOn = function (value) {
   if (IsAndroid) {
@@ -290,12 +571,252 @@ Sound.setCategory = function (value, mixWithOthers = false) {
   }
 };
 
+// android only
+Sound.setFocusPolicy = function (options) {
+  if (IsAndroid) {
+    RNSound.setFocusPolicy(options);
+  }
+};
+
+// android only
+Sound.setIdlePolicy = function (options) {
+  if (IsAndroid) {
+    RNSound.setIdlePolicy(options);
+  }
+};
+
 Sound.setMode = function (value) {
   if (!IsAndroid && !IsWindows) {
     RNSound.setMode(value);
   }
 };
 
+Sound.batch = function (operations, callback) {
+  if (!IsAndroid) {
+    // Apply operations one by one on platforms without native batch support
+    operations.forEach((operation) => {
+      if (operation.method === 'setLooping') {
+        operation.sound.setNumberOfLoops(operation.value ? -1 : 0);
+      } else if (operation.method !== 'prepare') {
+        operation.sound[operation.method](operation.value);
+      }
+    });
+    callback && callback(operations.map((operation) => ({ key: operation.sound._key, success: operation.method !== 'prepare' })));
+    return;
+  }
+
+  var nativeOperations = operations.map((operation) => {
+    var sound = operation.sound;
+    var nativeOperation = { method: operation.method, key: sound._key };
+
+    switch (operation.method) {
+      case 'prepare':
+        nativeOperation.fileName = sound._filename;
+        nativeOperation.options = operation.options || {};
+        break;
+      case 'setVolume':
+        sound._volume = operation.value;
+        nativeOperation.value = operation.value;
+        break;
+      case 'setLooping':
+        sound._numberOfLoops = operation.value ? -1 : 0;
+        nativeOperation.value = !!operation.value;
+        break;
+      case 'setSpeed':
+        sound._speed = operation.value;
+        nativeOperation.value = operation.value;
+        break;
+      case 'setCurrentTime':
+        nativeOperation.value = operation.value;
+        break;
+      case 'release':
+        sound._loaded = false;
+        break;
+    }
+
+    return nativeOperation;
+  });
+
+  RNSound.batch(nativeOperations, (results) => {
+    results.forEach((result, index) => {
+      var sound = operations[index].sound;
+
+      if (operations[index].method === 'prepare' && result.success) {
+        sound._loaded = true;
+        if (result.props && typeof result.props.duration === 'number') {
+          sound._duration = result.props.duration;
+        }
+        if (result.props && typeof result.props.numberOfChannels === 'number') {
+          sound._numberOfChannels = result.props.numberOfChannels;
+        }
+      }
+    });
+
+    callback && callback(results);
+  });
+};
+
+Sound.crossfade = function (fromSound, toSound, durationMs, curve, callback) {
+  if (IsAndroid) {
+    RNSound.crossfade(fromSound._key, toSound._key, toSound._volume, durationMs, curve || 'equalPower', (results) => {
+      // Restore volume of paused sound for next playback
+      if (results[0].success) {
+        fromSound.setVolume(fromSound._volume);
+      }
+      callback && callback(results.every((result) => result.success));
+    });
+  } else {
+    fromSound.pause();
+    toSound.play();
+    callback && callback(true);
+  }
+};
+
+Sound.getHostTime = function (callback) {
+  if (IsAndroid) {
+    RNSound.getHostTime(callback);
+  } else {
+    callback(Date.now());
+  }
+};
+
+Sound.scheduleSequence = function (items, callback) {
+  if (IsAndroid) {
+    RNSound.scheduleSequence(items.map((item) => ({ key: item.sound._key, time: item.time })), (results) => {
+      callback && callback(results);
+    });
+    return;
+  }
+
+  var results = new Array(items.length);
+  var pending = items.length;
+  items.forEach((item, index) => {
+    item.sound.playAt(item.time, (error, props) => {
+      results[index] = { key: item.sound._key, success: !error, props: props };
+      if (--pending === 0) {
+        callback && callback(results);
+      }
+    });
+  });
+};
+
+Sound.playTogether = function (layers, callback) {
+  if (IsAndroid) {
+    RNSound.playTogether(layers.map((layer) => ({ key: layer.sound._key, offset: layer.offset || 0 })), (results) => {
+      callback && callback(results);
+    });
+    return;
+  }
+
+  // Start sounds via timers on platforms without native mixer
+  layers.forEach((layer) => {
+    if (layer.offset) {
+      setTimeout(() => layer.sound.play(), layer.offset * 1000);
+    } else {
+      layer.sound.play();
+    }
+  });
+  callback && callback(layers.map((layer) => ({ key: layer.sound._key, success: layer.sound.isLoaded() })));
+};
+
+// android only
+
+Sound.setPlayerPoolSize = function (size) {
+  if (IsAndroid) {
+    RNSound.setPlayerPoolSize(size);
+  }
+};
+
+Sound.getPlayerPoolStats = function (callback) {
+  if (IsAndroid) {
+    RNSound.getPlayerPoolStats(callback);
+  }
+};
+
+Sound.getBufferUsage = function (callback) {
+  if (IsAndroid) {
+    RNSound.getBufferUsage(callback);
+  }
+};
+
+Sound.setMemoryLimits = function (options) {
+  if (IsAndroid) {
+    RNSound.setMemoryLimits(options);
+  }
+};
+
+Sound.getMemoryUsage = function (callback) {
+  if (IsAndroid) {
+    RNSound.getMemoryUsage(callback);
+  }
+};
+
+Sound.preload = function (filename, basePath, callback) {
+  if (IsAndroid) {
+    RNSound.preload(basePath ? basePath + '/' + filename : filename, callback);
+  }
+};
+
+Sound.evict = function (filename, basePath) {
+  if (IsAndroid) {
+    RNSound.evict(basePath ? basePath + '/' + filename : filename);
+  }
+};
+
+Sound.setPcmCacheSize = function (bytes) {
+  if (IsAndroid) {
+    RNSound.setPcmCacheSize(bytes);
+  }
+};
+
+Sound.getPcmCacheStats = function (callback) {
+  if (IsAndroid) {
+    RNSound.getPcmCacheStats(callback);
+  }
+};
+
+Sound.setRemoteCacheOptions = function (options) {
+  if (IsAndroid) {
+    RNSound.setRemoteCacheOptions(options);
+  }
+};
+
+Sound.getRemoteCacheStats = function (callback) {
+  if (IsAndroid) {
+    RNSound.getRemoteCacheStats(callback);
+  }
+};
+
+Sound.setEventOptions = function (options) {
+  if (IsAndroid) {
+    RNSound.setEventOptions(options);
+  }
+};
+
+Sound.setMetricsEnabled = function (enabled) {
+  if (IsAndroid) {
+    RNSound.setMetricsEnabled(enabled);
+  }
+};
+
+Sound.getMetrics = function (callback) {
+  if (IsAndroid) {
+    RNSound.getMetrics(callback);
+  }
+};
+
+Sound.resetMetrics = function () {
+  if (IsAndroid) {
+    RNSound.resetMetrics();
+  }
+};
+
+Sound.getLatencyStats = function (callback) {
+  if (IsAndroid) {
+    RNSound.getLatencyStats(callback);
+  }
+};
+
 Sound.MAIN_BUNDLE = RNSound.MainBundlePath;
 Sound.DOCUMENT = RNSound.NSDocumentDirectory;
 Sound.LIBRARY = RNSound.NSLibraryDirectory;